@@ -0,0 +1,244 @@
+package abubakar.bookapp.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import abubakar.bookapp.BookappApplication;
+import abubakar.bookapp.models.Author;
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Order;
+import abubakar.bookapp.models.OrderItem;
+import abubakar.bookapp.models.Review;
+import abubakar.bookapp.models.User;
+import abubakar.bookapp.payload.AuthorWithBookCountDTO;
+import abubakar.bookapp.payload.CursorSliceDTO;
+import abubakar.bookapp.payload.OrderRangeStatsDTO;
+import abubakar.bookapp.payload.OrderStatsDTO;
+import abubakar.bookapp.repository.AuthorRepository;
+import abubakar.bookapp.repository.BookRepository;
+import abubakar.bookapp.repository.ReviewRepository;
+import abubakar.bookapp.repository.UserRepository;
+import abubakar.bookapp.service.CatalogCacheService;
+import abubakar.bookapp.service.CatalogSearchService;
+import abubakar.bookapp.service.OrderService;
+import abubakar.bookapp.service.ReviewService;
+
+/**
+ * Repository-backed flows against the full application context on an
+ * embedded H2 database (MySQL mode), seeded with a catalog and order history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ApplicationBenchmark {
+
+    private static final String[] TITLE_WORDS = {
+            "Clean", "Code", "Patterns", "Java", "Spring", "Systems", "Design", "Data",
+            "Algorithms", "Concurrency", "Refactoring", "Testing", "Cloud", "Security" };
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "10000" })
+    public int books;
+
+    @Param({ "1000" })
+    public int orders;
+
+    @Param({ "10000" })
+    public int reviewsOfPopularBook;
+
+    private ConfigurableApplicationContext context;
+    private AuthorRepository authorRepository;
+    private BookRepository bookRepository;
+    private CatalogSearchService catalogSearchService;
+    private CatalogCacheService catalogCacheService;
+    private OrderService orderService;
+    private ReviewService reviewService;
+
+    private User customer;
+    private List<Long> bookIds;
+    private long deepCursor;
+    private int deepPage;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(BookappApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.open-in-view=false",
+                "--spring.devtools.restart.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--spring.mail.host=localhost",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--file.upload-dir=target/jmh-uploads",
+                "--razorpay.key.id=rzp_test_benchmark",
+                "--razorpay.key.secret=benchmark");
+
+        authorRepository = context.getBean(AuthorRepository.class);
+        bookRepository = context.getBean(BookRepository.class);
+        catalogSearchService = context.getBean(CatalogSearchService.class);
+        catalogCacheService = context.getBean(CatalogCacheService.class);
+        orderService = context.getBean(OrderService.class);
+        reviewService = context.getBean(ReviewService.class);
+
+        seed(context.getBean(UserRepository.class), context.getBean(ReviewRepository.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<AuthorWithBookCountDTO> authorsWithBookCounts() {
+        return authorRepository.findAllWithBookCount(PageRequest.of(0, PAGE_SIZE, Sort.by("id").descending()));
+    }
+
+    @Benchmark
+    public Page<Book> booksDeepOffsetPage() {
+        return bookRepository.findAll(PageRequest.of(deepPage, PAGE_SIZE, Sort.by("id").descending()));
+    }
+
+    @Benchmark
+    public Slice<Book> booksDeepKeysetSlice() {
+        return bookRepository.findByIdLessThanOrderByIdDesc(deepCursor, CursorSliceDTO.limit(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<Book> booksFirstPageCached() {
+        return catalogCacheService.getBookPage(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Book> searchBooks() {
+        next++;
+        String query = TITLE_WORDS[next % TITLE_WORDS.length].toLowerCase() + " "
+                + TITLE_WORDS[(next + 3) % TITLE_WORDS.length].substring(0, 4).toLowerCase();
+        return catalogSearchService.searchBooks(query, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public OrderStatsDTO dashboardStats() {
+        return orderService.getOrderStats();
+    }
+
+    @Benchmark
+    public OrderRangeStatsDTO monthlyStats() {
+        LocalDateTime now = LocalDateTime.now();
+        return orderService.getOrderStatsByRange(now.minusDays(30), now);
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        return orderService.placeOrder(newOrder(next++));
+    }
+
+    @Benchmark
+    public Review addReviewToPopularBook() {
+        return reviewService.addReview(bookIds.get(0), "Another review", 4f);
+    }
+
+    @Benchmark
+    public Slice<Review> popularBookReviewsByRating() {
+        return reviewService.getReviews(bookIds.get(0), null, 10, ReviewService.SORT_RATING);
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private void seed(UserRepository userRepository, ReviewRepository reviewRepository) {
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, books / 50); i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setDescription("Writes about " + TITLE_WORDS[i % TITLE_WORDS.length]);
+            author.setGender(i % 2 == 0 ? "female" : "male");
+            author.setProgrammingLanguages(new ArrayList<>(List.of("Java", "Go")));
+            authors.add(author);
+        }
+        authors = authorRepository.saveAll(authors);
+
+        List<Book> catalog = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            Book book = new Book();
+            book.setName(TITLE_WORDS[i % TITLE_WORDS.length] + " " + TITLE_WORDS[(i / 7) % TITLE_WORDS.length]
+                    + " " + i);
+            book.setDescription("A practical guide to " + TITLE_WORDS[(i / 3) % TITLE_WORDS.length]);
+            book.setAuthor(authors.get(i % authors.size()));
+            book.setPrice(BigDecimal.valueOf(100 + i % 900, 0).add(new BigDecimal("0.99")));
+            book.setQuantity(1_000_000);
+            catalog.add(book);
+        }
+        bookIds = bookRepository.saveAll(catalog).stream().map(Book::getId).toList();
+
+        deepPage = books / PAGE_SIZE - 1;
+        deepCursor = bookIds.get(PAGE_SIZE);
+
+        customer = new User();
+        customer.setName("Benchmark Reader");
+        customer.setEmail("reader@example.com");
+        customer.setPassword("not-used");
+        customer = userRepository.save(customer);
+
+        for (int i = 0; i < orders; i++) {
+            orderService.placeOrder(newOrder(i));
+        }
+
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < reviewsOfPopularBook; i++) {
+            reviews.add(new Review(bookIds.get(0), "Review " + i, (float) (i % 5 + 1)));
+        }
+        reviewRepository.saveAll(reviews);
+
+        catalogSearchService.rebuild();
+    }
+
+    private Order newOrder(int seed) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setUserName(customer.getName());
+        order.setOrderMode("CASH");
+        order.setAddress("221B Baker Street");
+        order.setPhoneNumber("9999999999");
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem();
+            item.setBookId(bookIds.get((seed * 7 + i * 13) % bookIds.size()));
+            item.setQuantity(1 + i);
+            items.add(item);
+        }
+        order.setItems(items);
+        return order;
+    }
+
+}
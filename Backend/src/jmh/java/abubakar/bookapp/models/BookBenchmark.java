@@ -0,0 +1,47 @@
+package abubakar.bookapp.models;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Average rating, computed for every book in a listing response from the stored aggregates
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookBenchmark {
+
+    @Param({ "0", "10", "1000" })
+    public int reviews;
+
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        book = new Book();
+        double sum = 0;
+        for (int i = 0; i < reviews; i++) {
+            sum += i % 5 + 1;
+        }
+        book.setRatingSum(sum);
+        book.setRatingCount((long) reviews);
+    }
+
+    @Benchmark
+    public float averageRating() {
+        return book.getAverageRating();
+    }
+
+}
@@ -0,0 +1,56 @@
+package abubakar.bookapp.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Token verification as done by JwtAuthFilter on every request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    // More distinct tokens than the verified-token cache holds, so every parse misses
+    private static final int DISTINCT_TOKENS = 25_000;
+
+    private JwtUtils jwtUtils;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        token = jwtUtils.generateJwtToken("reader@example.com", "USER");
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = jwtUtils.generateJwtToken("reader" + i + "@example.com", "USER");
+        }
+    }
+
+    // Same token on every request, served from the cache
+    @Benchmark
+    public JwtClaims repeatedToken() {
+        return jwtUtils.parseToken(token);
+    }
+
+    // A token not seen recently, fully verified
+    @Benchmark
+    public JwtClaims uncachedToken() {
+        next = (next + 1) % tokens.length;
+        return jwtUtils.parseToken(tokens[next]);
+    }
+
+}
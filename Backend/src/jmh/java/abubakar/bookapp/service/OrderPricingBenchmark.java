@@ -0,0 +1,79 @@
+package abubakar.bookapp.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import abubakar.bookapp.models.Author;
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Order;
+import abubakar.bookapp.models.OrderItem;
+
+// Pricing step of checkout and the recalculation used by item removal
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int items;
+
+    private Order order;
+    private Map<Long, Book> books;
+
+    @Setup
+    public void setUp() {
+        Author author = new Author();
+        author.setName("Author");
+
+        books = new HashMap<>();
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (long id = 1; id <= items; id++) {
+            Book book = new Book();
+            book.setId(id);
+            book.setName("Book " + id);
+            book.setAuthor(author);
+            book.setPrice(new BigDecimal("199.99").add(BigDecimal.valueOf(id)));
+            books.put(id, book);
+
+            OrderItem item = new OrderItem();
+            item.setBookId(id);
+            item.setQuantity((int) (id % 3 + 1));
+            orderItems.add(item);
+        }
+
+        order = new Order();
+        order.setItems(orderItems);
+    }
+
+    @Benchmark
+    public float price() {
+        OrderPricing.price(order, books);
+        return order.getTotal();
+    }
+
+    @Benchmark
+    public float recalculateTotals() {
+        OrderPricing.recalculateTotals(order);
+        return order.getTotal();
+    }
+
+}
@@ -0,0 +1,75 @@
+package abubakar.bookapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import abubakar.bookapp.models.Order;
+import abubakar.bookapp.models.OrderItem;
+import abubakar.bookapp.models.ReturnReplacement;
+
+// Order recalculation when a return or replacement is approved
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReturnAdjustmentBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int items;
+
+    @Param({ "RETURN", "REPLACEMENT" })
+    public String type;
+
+    private final ReturnReplacementService service = new ReturnReplacementService();
+
+    private Order order;
+    private ReturnReplacement request;
+
+    @Setup
+    public void setUp() {
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (long id = 1; id <= items; id++) {
+            OrderItem item = new OrderItem();
+            item.setBookId(id);
+            item.setQuantity(3);
+            item.setUnitPrice(249.5f);
+            item.setSubtotal(748.5f);
+            orderItems.add(item);
+        }
+
+        order = new Order();
+        order.setItems(orderItems);
+
+        // Return one copy of the last item in the order
+        request = new ReturnReplacement();
+        request.setBookId((long) items);
+        request.setType(type);
+    }
+
+    @Benchmark
+    public float adjust() {
+        // Undo the previous invocation so every call processes the same return
+        OrderItem last = order.getItems().get(items - 1);
+        last.setReturnedQuantity(0);
+        last.setReplacedQuantity(0);
+
+        service.adjustOrderForReturnOrReplacement(order, request, 1);
+        return order.getTotal();
+    }
+
+}
@@ -0,0 +1,261 @@
+package abubakar.bookapp.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import abubakar.bookapp.BookappApplication;
+import abubakar.bookapp.models.Author;
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.User;
+import abubakar.bookapp.repository.AuthorRepository;
+import abubakar.bookapp.repository.BookRepository;
+import abubakar.bookapp.repository.UserRepository;
+import abubakar.bookapp.security.JwtUtils;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Throughput of the two request thread models under many concurrent
+ * connections: Tomcat's platform worker pool (200 threads) against one
+ * virtual thread per request (the virtual-threads profile).
+ *
+ * For each mode the full application is started on an embedded H2 database
+ * (MySQL mode), and every client keeps one request in flight for the first
+ * page of the shop front as a signed-in user, which also looks the user up
+ * in the database. Each request additionally waits latency-ms in a servlet
+ * filter, standing in for the MySQL, Razorpay and SMTP round trips a real
+ * request blocks on; an in-memory H2 would not block at all.
+ *
+ * Client and server share this JVM, so the figures compare the two modes
+ * with each other rather than predict production throughput.
+ *
+ * Usage: ThreadModeLoadTest [connections] [seconds] [latency-ms]
+ */
+public final class ThreadModeLoadTest {
+
+    private static final int WARMUP_SECONDS = 5;
+    private static final int RAMP_UP_BATCH = 50;
+    private static final int MAX_LATENCY_MS = 60_000;
+
+    private record Result(String mode, int connections, long requests, long errors, double seconds,
+            long p50, long p99, String firstError) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int latencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        // DevTools would relaunch this main class with the application arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform", connections, seconds, latencyMs));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run("virtual", connections, seconds, latencyMs));
+        } else {
+            System.out.println("Skipping virtual threads, they need Java 21 (running " + Runtime.version() + ")");
+        }
+
+        System.out.printf("%nBackend latency %d ms, %d s measured after %d s warm-up%n",
+                latencyMs, seconds, WARMUP_SECONDS);
+        System.out.printf("%-10s %12s %12s %10s %10s %10s%n",
+                "mode", "connections", "requests/s", "p50 ms", "p99 ms", "errors");
+        for (Result r : results) {
+            System.out.printf("%-10s %12d %12.0f %10d %10d %10d%n",
+                    r.mode(), r.connections(), r.requests() / r.seconds(), r.p50(), r.p99(), r.errors());
+            if (r.firstError() != null) {
+                System.out.println("           first error: " + r.firstError());
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Result run(String mode, int connections, int seconds, int latencyMs) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        System.out.println("Starting application with " + mode + " request threads");
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.open-in-view=false",
+                "--spring.main.banner-mode=off",
+                "--spring.mail.host=localhost",
+                "--server.port=0",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000",
+                "--logging.level.root=WARN",
+                "--file.upload-dir=target/loadtest-uploads",
+                "--razorpay.key.id=rzp_test_loadtest",
+                "--razorpay.key.secret=loadtest",
+                "--loadtest.latency-ms=" + latencyMs));
+        if (virtual) {
+            args.add("--spring.profiles.active=virtual-threads");
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(
+                new Class<?>[] { BookappApplication.class, BackendLatency.class }, args.toArray(String[]::new));
+
+        try {
+            String token = seed(context);
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/books?page=0&size=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            return drive(mode, connections, seconds, request);
+        } finally {
+            context.close();
+        }
+    }
+
+    // One user and a small catalog; returns the user's bearer token
+    private static String seed(ConfigurableApplicationContext context) {
+        Author author = new Author();
+        author.setName("Load Test Author");
+        author.setDescription("Seeded for the load test");
+        author.setGender("F");
+        context.getBean(AuthorRepository.class).save(author);
+
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        for (int i = 0; i < 50; i++) {
+            Book book = new Book();
+            book.setName("Load Test Book " + i);
+            book.setDescription("Seeded for the load test");
+            book.setPrice(BigDecimal.valueOf(100 + i));
+            book.setQuantity(1000);
+            book.setAuthor(author);
+            bookRepository.save(book);
+        }
+
+        User user = new User();
+        user.setName("Load Test");
+        user.setEmail("loadtest@bookify.local");
+        user.setPassword("unused");
+        user.setRole("ROLE_USER");
+        context.getBean(UserRepository.class).save(user);
+
+        return context.getBean(JwtUtils.class).generateJwtToken(user.getEmail(), user.getRole());
+    }
+
+    /**
+     * Every client sends its next request as soon as the previous one
+     * completes, so about `connections` requests are in flight throughout.
+     * Only requests completing after the warm-up count.
+     */
+    private static Result drive(String mode, int connections, int seconds, HttpRequest request)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        AtomicReference<String> firstError = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(connections);
+
+        class Client {
+            void send() {
+                long start = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    long now = System.nanoTime();
+                    if (now >= measureFrom && now < end) {
+                        if (error == null && response.statusCode() == 200) {
+                            requests.increment();
+                            int ms = (int) Math.min(TimeUnit.NANOSECONDS.toMillis(now - start), MAX_LATENCY_MS);
+                            latencies.incrementAndGet(ms);
+                        } else {
+                            errors.increment();
+                            firstError.compareAndSet(null, error != null ? error.toString() : "HTTP " + response.statusCode());
+                        }
+                    }
+                    if (now < end) {
+                        send();
+                    } else {
+                        done.countDown();
+                    }
+                });
+            }
+        }
+
+        System.out.println("Opening " + connections + " connections");
+        for (int i = 0; i < connections; i++) {
+            new Client().send();
+            if (i % RAMP_UP_BATCH == RAMP_UP_BATCH - 1) {
+                Thread.sleep(5); // spread the connects over the warm-up instead of flooding the accept queue
+            }
+        }
+
+        done.await(seconds + WARMUP_SECONDS + 120L, TimeUnit.SECONDS);
+        return new Result(mode, connections, requests.sum(), errors.sum(), seconds,
+                percentile(latencies, requests.sum(), 0.50), percentile(latencies, requests.sum(), 0.99),
+                firstError.get());
+    }
+
+    private static long percentile(AtomicLongArray latencies, long count, double fraction) {
+        long rank = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int ms = 0; ms < latencies.length(); ms++) {
+            seen += latencies.get(ms);
+            if (seen >= rank && rank > 0) {
+                return ms;
+            }
+        }
+        return 0;
+    }
+
+    /** Blocks every API request for a fixed time, like a remote call would. */
+    static class BackendLatency {
+
+        @Bean
+        FilterRegistrationBean<OncePerRequestFilter> backendLatencyFilter(
+                @Value("${loadtest.latency-ms}") long latencyMs) {
+            FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(
+                    new OncePerRequestFilter() {
+                        @Override
+                        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                FilterChain chain) throws ServletException, IOException {
+                            try {
+                                Thread.sleep(latencyMs);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            chain.doFilter(request, response);
+                        }
+                    });
+            registration.addUrlPatterns("/api/*");
+            return registration;
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package abubakar.bookapp.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import abubakar.bookapp.service.CatalogCacheService;
+
+@Configuration
+public class CacheConfig {
+
+    // Caches are created up front so actuator binds their hit/miss metrics (cache.gets, cache.evictions)
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${catalog.cache.max-size:10000}") long maxSize,
+            @Value("${catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        manager.setAllowNullValues(false);
+        manager.setCacheNames(List.of(
+                CatalogCacheService.BOOKS, CatalogCacheService.LISTINGS, CatalogCacheService.NAMES));
+        return manager;
+    }
+}
@@ -0,0 +1,19 @@
+package abubakar.bookapp.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    private static final int DEFAULT_BATCH_FETCH_SIZE = 50;
+
+    // Lazy associations and collections of loaded entities are fetched in batches instead of one query each,
+    // unless spring.jpa.properties.hibernate.default_batch_fetch_size says otherwise
+    @Bean
+    public HibernatePropertiesCustomizer batchFetchCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.DEFAULT_BATCH_FETCH_SIZE, DEFAULT_BATCH_FETCH_SIZE);
+    }
+}
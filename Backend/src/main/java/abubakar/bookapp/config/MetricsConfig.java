@@ -0,0 +1,59 @@
+package abubakar.bookapp.config;
+
+import java.time.Duration;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metrics defaults (metrics.properties, overridable from application.properties)
+ * and a timer on every public method of the @Service beans:
+ *
+ * service.method{class, method, exception} with a percentile histogram, so
+ * Prometheus can compute latency quantiles per method and count failures by
+ * exception type. Calls a service makes to itself skip the proxy and count
+ * as part of the outer call.
+ *
+ * Scraped at /actuator/prometheus next to the metrics Spring Boot binds on
+ * its own (hikaricp.*, tomcat.*, http.server.requests, cache.*, jvm.*).
+ */
+@Configuration
+@Aspect
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *) && execution(public * *(..))")
+    public Object timeServiceMethod(ProceedingJoinPoint call) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return call.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("service.method")
+                    .tag("class", AopUtils.getTargetClass(call.getTarget()).getSimpleName())
+                    .tag("method", call.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry));
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package abubakar.bookapp.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ *
+ * QueryProfilingConfig opens a scope around every HTTP request and tags it
+ * with the controller method, which is also prefixed to each statement as a
+ * comment so it shows up in the MySQL slow query log and process list.
+ * Tests can open their own scope around a call and assert on count().
+ *
+ * Only Hibernate statements are seen; JdbcTemplate calls are not counted.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final long startedAt = System.nanoTime();
+        private final Map<String, Integer> statements = new HashMap<>();
+        private String handler;
+        private long count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+            this.handler = parent != null ? parent.handler : null;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public String handler() {
+            return handler;
+        }
+
+        public long elapsedMillis() {
+            return (System.nanoTime() - startedAt) / 1_000_000;
+        }
+
+        // The statement run most often in this scope and how often, the usual sign of an N+1
+        public Map.Entry<String, Integer> mostRepeated() {
+            return statements.entrySet().stream()
+                    .max(Comparator.comparingInt(Map.Entry::getValue))
+                    .orElse(null);
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    // Start counting on this thread; nested scopes also count towards the outer ones
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // Name the code responsible for the statements that follow, e.g. "AuthorController.getAll"
+    public static void tag(String handler) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.handler = handler;
+        }
+    }
+
+    // Statements counted so far in the innermost open scope, or 0 outside any scope
+    public static long count() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.count : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return sql;
+        }
+
+        for (Scope s = scope; s != null; s = s.parent) {
+            s.count++;
+            s.statements.merge(sql, 1, Integer::sum);
+        }
+        return scope.handler != null ? "/* " + scope.handler + " */ " + sql : sql;
+    }
+
+}
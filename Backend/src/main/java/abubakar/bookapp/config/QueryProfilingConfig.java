@@ -0,0 +1,163 @@
+package abubakar.bookapp.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Query profiling for HTTP requests and repository calls.
+ *
+ * Every request runs inside a QueryCounter scope tagged with its controller
+ * method. Per request the statement count is recorded as
+ * http.server.queries{handler}, and requests over query.request-budget
+ * statements or query.slow-request-ms are logged with their most repeated
+ * statement. Repository calls are timed as repository.method{repository,
+ * method}; calls slower than query.slow-ms are logged.
+ */
+@Configuration
+@Aspect
+public class QueryProfilingConfig implements WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfilingConfig.class);
+
+    private static final String UNMAPPED = "unmapped";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${query.request-budget:20}")
+    private long requestBudget;
+
+    @Value("${query.slow-request-ms:1000}")
+    private long slowRequestMs;
+
+    @Value("${query.slow-ms:200}")
+    private long slowQueryMs;
+
+    public QueryProfilingConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    // Ahead of Spring Security, so the user lookups done while authenticating count too
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> queryCountFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(
+                new OncePerRequestFilter() {
+                    @Override
+                    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                            FilterChain chain) throws ServletException, IOException {
+                        try (QueryCounter.Scope scope = QueryCounter.open()) {
+                            QueryCounter.tag(UNMAPPED);
+                            try {
+                                chain.doFilter(request, response);
+                            } finally {
+                                record(request, scope);
+                            }
+                        }
+                    }
+                });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod method) {
+                    QueryCounter.tag(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+                }
+                return true;
+            }
+        });
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepositoryMethod(ProceedingJoinPoint call) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return call.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String repository = repositoryName(call.getThis());
+            String method = call.getSignature().getName();
+            Timer.builder("repository.method")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            if (elapsedMs >= slowQueryMs) {
+                log.warn("Slow repository call {}.{} took {} ms", repository, method, elapsedMs);
+            }
+        }
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private void record(HttpServletRequest request, QueryCounter.Scope scope) {
+        String handler = scope.handler();
+        DistributionSummary.builder("http.server.queries")
+                .description("SQL statements per HTTP request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry)
+                .record(scope.count());
+
+        long elapsedMs = scope.elapsedMillis();
+        if (scope.count() > requestBudget || elapsedMs >= slowRequestMs) {
+            Map.Entry<String, Integer> repeated = scope.mostRepeated();
+            String mostRepeated = repeated != null && repeated.getValue() > 1
+                    ? "; " + repeated.getValue() + "x " + repeated.getKey()
+                    : "";
+            log.warn("{} {} ({}) ran {} queries in {} ms{}", request.getMethod(), request.getRequestURI(),
+                    handler, scope.count(), elapsedMs, mostRepeated);
+        }
+    }
+
+    // The application's repository interface behind a Spring Data proxy, e.g. "BookRepository"
+    private static String repositoryName(Object proxy) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (type.getPackageName().startsWith("abubakar.bookapp")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+
+}
@@ -15,6 +15,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import abubakar.bookapp.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 
 import java.util.List;
 
@@ -57,10 +58,14 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Completes a streamed response (order export) whose request was already authorized;
+                        // the JWT filter does not run again on this dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/register-admin",
                                 "/api/auth/logout", "/api/auth/email/**", "/api/auth/forgot-password",
-                                "/api/auth/reset-password", "/uploads/**")
+                                "/api/auth/reset-password", "/uploads/**", "/actuator/health", "/actuator/prometheus")
                         .permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/auth/profile/**", "/api/auth/books", "/api/auth/authors").authenticated()
                         .requestMatchers("/api/books/**").hasRole("ADMIN")
                         .requestMatchers("/api/authors/**").hasRole("ADMIN")
@@ -1,5 +1,8 @@
 package abubakar.bookapp.controller;
 
+import java.util.List;
+
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,10 +28,10 @@ import abubakar.bookapp.models.User;
 import abubakar.bookapp.payload.LoginRequest;
 import abubakar.bookapp.payload.RegisterRequest;
 import abubakar.bookapp.payload.USerIdResponse;
-import abubakar.bookapp.repository.AuthorRepository;
-import abubakar.bookapp.repository.BookRepository;
 import abubakar.bookapp.repository.UserRepository;
 import abubakar.bookapp.security.JwtUtils;
+import abubakar.bookapp.service.CatalogCacheService;
+import abubakar.bookapp.service.CatalogNames;
 import abubakar.bookapp.service.UserService;
 import jakarta.validation.Valid;
 
@@ -42,19 +45,17 @@ public class AuthController {
     private final BCryptPasswordEncoder encoder;
     private final JwtUtils jwtUtils;
     private final UserService userService;
-    private final BookRepository bookRepository;
-    private final AuthorRepository authorRepository;
+    private final CatalogCacheService catalogCacheService;
 
     public AuthController(AuthenticationManager authManager, UserRepository repo,
-            BCryptPasswordEncoder encoder, JwtUtils jwtUtils, UserService userService, BookRepository bookRepository,
-            AuthorRepository authorRepository) {
+            BCryptPasswordEncoder encoder, JwtUtils jwtUtils, UserService userService,
+            CatalogCacheService catalogCacheService) {
         this.authManager = authManager;
         this.repo = repo;
         this.encoder = encoder;
         this.jwtUtils = jwtUtils;
         this.userService = userService;
-        this.bookRepository = bookRepository;
-        this.authorRepository = authorRepository;
+        this.catalogCacheService = catalogCacheService;
     }
 
     @PostMapping("/register")
@@ -180,26 +181,16 @@ public class AuthController {
                 .orElseGet(() -> ResponseEntity.status(404).body("User not found"));
     }
 
-    // Fetch only book names
+    // Fetch only book names; answers If-None-Match with 304 while the list is unchanged
     @GetMapping("/books")
-    public ResponseEntity<?> getAllBooks() {
-        return ResponseEntity.ok(
-                bookRepository.findAll()
-                        .stream()
-                        .map(book -> book.getName())
-                        .sorted(String::compareToIgnoreCase)
-                        .toList());
+    public ResponseEntity<List<String>> getAllBooks() {
+        return nameList(catalogCacheService.getBookNames());
     }
 
-    // Fetch only author names
+    // Fetch only author names; answers If-None-Match with 304 while the list is unchanged
     @GetMapping("/authors")
-    public ResponseEntity<?> getAllAuthors() {
-        return ResponseEntity.ok(
-                authorRepository.findAll()
-                        .stream()
-                        .map(author -> author.getName())
-                        .sorted(String::compareToIgnoreCase)
-                        .toList());
+    public ResponseEntity<List<String>> getAllAuthors() {
+        return nameList(catalogCacheService.getAuthorNames());
     }
 
     @PutMapping(value = "/profile/{id}", consumes = { "multipart/form-data" })
@@ -211,4 +202,14 @@ public class AuthController {
         return ResponseEntity.ok(userService.updateProfile(id, value, file));
     }
 
+    // ---------------- Helper Methods ----------------
+
+    // Clients keep the list and revalidate it; Spring turns a matching If-None-Match into a 304
+    private ResponseEntity<List<String>> nameList(CatalogNames snapshot) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.names());
+    }
+
 }
@@ -7,10 +7,13 @@ import abubakar.bookapp.models.Author;
 import abubakar.bookapp.models.Book;
 import abubakar.bookapp.repository.AuthorRepository;
 import abubakar.bookapp.repository.BookRepository;
+import abubakar.bookapp.service.CatalogCacheService;
+import abubakar.bookapp.service.CatalogSearchService;
 import abubakar.bookapp.service.FileStorageService;
 import abubakar.bookapp.payload.AuthorDTO;
 import abubakar.bookapp.payload.AuthorNameDTO;
 import abubakar.bookapp.payload.AuthorWithBookCountDTO;
+import abubakar.bookapp.payload.CursorSliceDTO;
 import jakarta.validation.Valid;
 import jakarta.validation.Validation;
 
@@ -18,6 +21,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -28,8 +32,10 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -40,42 +46,47 @@ public class AuthorController {
     private final BookRepository bookRepo;
     private final FileStorageService fileStorageService;
     private final ObjectMapper objectMapper;
+    private final CatalogSearchService catalogSearchService;
+    private final CatalogCacheService catalogCacheService;
 
     public AuthorController(AuthorRepository repo, BookRepository bookRepo,
-            FileStorageService fileStorageService, ObjectMapper objectMapper) {
+            FileStorageService fileStorageService, ObjectMapper objectMapper,
+            CatalogSearchService catalogSearchService, CatalogCacheService catalogCacheService) {
         this.repo = repo;
         this.bookRepo = bookRepo;
         this.fileStorageService = fileStorageService;
         this.objectMapper = objectMapper;
+        this.catalogSearchService = catalogSearchService;
+        this.catalogCacheService = catalogCacheService;
     }
 
     @GetMapping
     public ResponseEntity<?> getAll(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "3") int size) {
+            @RequestParam(defaultValue = "3") int size,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+
+        // Cursor slice when ?after= or ?limit= is given, no count query
+        if (after != null || limit != null) {
+            Slice<AuthorWithBookCountDTO> slice = repo.findWithBookCountByIdLessThan(
+                    CursorSliceDTO.seekFrom(after), CursorSliceDTO.limit(limit != null ? limit : size));
+            fillProgrammingLanguages(slice.getContent());
+            return ResponseEntity.ok(CursorSliceDTO.of(slice, AuthorWithBookCountDTO::getId));
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
-        Page<Author> authorsPage = repo.findAll(pageable);
-
-        // Map authors to DTO with book count
-        Page<AuthorWithBookCountDTO> dtoPage = authorsPage.map(author -> new AuthorWithBookCountDTO(
-                author.getId(),
-                author.getName(),
-                author.getDescription(),
-                author.getImageUrl(),
-                author.getGender(),
-                author.getProgrammingLanguages(),
-                bookRepo.countByAuthorId(author.getId())));
+
+        // Authors with book counts in one query, languages for the whole page in one more
+        Page<AuthorWithBookCountDTO> dtoPage = repo.findAllWithBookCount(pageable);
+        fillProgrammingLanguages(dtoPage.getContent());
 
         return ResponseEntity.ok(dtoPage);
     }
 
     @GetMapping("/names")
     public List<AuthorNameDTO> getAuthorNames() {
-        return repo.findAll()
-                .stream()
-                .map(a -> new AuthorNameDTO(a.getId(), a.getName()))
-                .collect(Collectors.toList());
+        return catalogCacheService.getAuthorRefs();
     }
 
     @GetMapping("/all-books")
@@ -114,7 +125,10 @@ public class AuthorController {
         author.setProgrammingLanguages(dto.getProgrammingLanguages());
         author.setImageUrl(fileStorageService.save(file));
 
-        return ResponseEntity.ok(repo.save(author));
+        Author saved = repo.save(author);
+        catalogSearchService.indexAuthor(saved, null);
+
+        return ResponseEntity.ok(saved);
     }
 
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -141,6 +155,7 @@ public class AuthorController {
         }
 
         // Update fields after validation passes
+        String previousName = existing.getName();
         existing.setName(dto.getName());
         existing.setDescription(dto.getDescription());
         existing.setGender(dto.getGender());
@@ -155,7 +170,10 @@ public class AuthorController {
             existing.setImageUrl(imageUrl);
         }
 
-        return ResponseEntity.ok(repo.save(existing));
+        Author updated = repo.save(existing);
+        catalogSearchService.indexAuthor(updated, previousName);
+
+        return ResponseEntity.ok(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -167,6 +185,7 @@ public class AuthorController {
         try {
             repo.delete(existing);
             repo.flush();
+            catalogSearchService.removeAuthor(id);
 
             if (existing.getImageUrl() != null && !existing.getImageUrl().isBlank()) {
                 fileStorageService.delete(existing.getImageUrl());
@@ -186,7 +205,20 @@ public class AuthorController {
             @RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "3") int size) {
-        return repo.findByNameContainingIgnoreCase(name, PageRequest.of(page, size));
+        return catalogSearchService.searchAuthors(name, PageRequest.of(page, size));
+    }
+
+    private void fillProgrammingLanguages(List<AuthorWithBookCountDTO> authors) {
+        if (authors.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<String>> languages = new HashMap<>();
+        for (Object[] row : repo.findProgrammingLanguages(authors.stream().map(AuthorWithBookCountDTO::getId).toList())) {
+            languages.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        authors.forEach(dto -> dto.setProgrammingLanguages(languages.getOrDefault(dto.getId(), new ArrayList<>())));
     }
 
 }
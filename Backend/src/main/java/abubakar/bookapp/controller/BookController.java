@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,11 +19,16 @@ import org.springframework.web.server.ResponseStatusException;
 
 import abubakar.bookapp.models.Author;
 import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Review;
 import abubakar.bookapp.payload.BookDTO;
+import abubakar.bookapp.payload.CursorSliceDTO;
 import abubakar.bookapp.repository.AuthorRepository;
 import abubakar.bookapp.repository.BookRepository;
 import abubakar.bookapp.service.CartService;
+import abubakar.bookapp.service.CatalogCacheService;
+import abubakar.bookapp.service.CatalogSearchService;
 import abubakar.bookapp.service.FileStorageService;
+import abubakar.bookapp.service.ReviewService;
 import abubakar.bookapp.service.WishlistService;
 import jakarta.validation.Valid;
 
@@ -50,12 +56,29 @@ public class BookController {
     @Autowired
     private CartService cartService;
 
-    // List all books (Admin only) with pagination
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    // List all books (Admin only); ?after=&limit= for cursor slices, page/size otherwise
     @GetMapping
     public ResponseEntity<?> list(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size) {
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (after != null || limit != null) {
+                Slice<Book> books = bookRepo.findByIdLessThanOrderByIdDesc(
+                        CursorSliceDTO.seekFrom(after), CursorSliceDTO.limit(limit != null ? limit : size));
+                return ResponseEntity.ok(CursorSliceDTO.of(books, Book::getId));
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
             Page<Book> books = bookRepo.findAll(pageable);
             return ResponseEntity.ok(books);
@@ -68,11 +91,20 @@ public class BookController {
     // Get a specific book by ID
     @GetMapping("/{id}")
     public ResponseEntity<Book> get(@PathVariable Long id) {
-        Book book = bookRepo.findById(id)
+        Book book = catalogCacheService.getBook(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
         return ResponseEntity.ok(book);
     }
 
+    // Reviews of a book, newest or highest rated first, one cursor slice at a time
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<CursorSliceDTO<Review>> reviews(@PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = ReviewService.SORT_RECENT) String sort) {
+        return ResponseEntity.ok(CursorSliceDTO.of(reviewService.getReviews(id, after, limit, sort), Review::getId));
+    }
+
     // Create book
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Book> create(
@@ -102,6 +134,7 @@ public class BookController {
             }
 
             Book savedBook = bookRepo.save(book);
+            catalogSearchService.indexBook(savedBook);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedBook);
 
         } catch (JsonProcessingException e) {
@@ -153,6 +186,7 @@ public class BookController {
             }
 
             Book updatedBook = bookRepo.save(existing);
+            catalogSearchService.indexBook(updatedBook);
             return ResponseEntity.ok(updatedBook);
 
         } catch (JsonProcessingException e) {
@@ -179,6 +213,7 @@ public class BookController {
             }
 
             bookRepo.deleteById(id);
+            catalogSearchService.removeBook(id);
             return ResponseEntity.noContent().build();
 
         } catch (ResponseStatusException e) {
@@ -198,7 +233,7 @@ public class BookController {
             if (name == null || name.trim().isEmpty()) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search name cannot be empty");
             }
-            Page<Book> result = bookRepo.findByNameContainingIgnoreCase(name.trim(), PageRequest.of(page, size));
+            Page<Book> result = catalogSearchService.searchBooks(name.trim(), PageRequest.of(page, size));
             return ResponseEntity.ok(result);
         } catch (ResponseStatusException e) {
             throw e;
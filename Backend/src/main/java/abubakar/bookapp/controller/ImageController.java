@@ -1,36 +1,172 @@
 package abubakar.bookapp.controller;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import abubakar.bookapp.service.ImageVariantService;
+import abubakar.bookapp.service.UploadAssetService;
+import abubakar.bookapp.service.UploadAssetService.Asset;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Serves everything under /uploads/ (covers, author and profile images,
+ * return photos) with ETag/Last-Modified revalidation, single byte ranges and
+ * a year-long immutable Cache-Control, since upload names are never reused.
+ *
+ * Larger bodies go out through Tomcat's sendfile (zero-copy) when the
+ * connector supports it, everything else through FileChannel.transferTo.
+ *
+ * ?w= asks for a downscaled variant at least that wide (see ImageVariantService).
+ */
 @RestController
 @CrossOrigin(origins = "http://localhost:3000",allowCredentials = "true")
 public class ImageController {
-    
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-
-    @GetMapping("/uploads/{filename:.+}")
-    public ResponseEntity<Resource> serveImage(@PathVariable String filename) throws IOException {
-        Path file = Paths.get(uploadDir).resolve(filename);
-        if (!Files.exists(file)) return ResponseEntity.notFound().build();
-        Resource resource = new UrlResource(file.toUri());
-        String contentType = Files.probeContentType(file);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"))
-                .body(resource);
+
+    // Request attributes of Tomcat's sendfile support (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this size a plain write is cheaper than handing the file to the poller
+    private static final long MIN_SENDFILE_SIZE = 48 * 1024;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final UploadAssetService uploadAssetService;
+    private final ImageVariantService imageVariantService;
+
+    public ImageController(UploadAssetService uploadAssetService, ImageVariantService imageVariantService) {
+        this.uploadAssetService = uploadAssetService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    @GetMapping("/uploads/{*path}")
+    public void serveImage(@PathVariable String path, @RequestParam(required = false) Integer w,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relativePath = path.startsWith("/") ? path.substring(1) : path;
+        if (w != null && w > 0 && uploadAssetService.find(relativePath) != null) {
+            relativePath = imageVariantService.resolve(relativePath, w);
+        }
+        Asset asset = uploadAssetService.find(relativePath);
+        if (asset == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found");
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Sets ETag and Last-Modified, and answers If-None-Match / If-Modified-Since with a 304
+        if (new ServletWebRequest(request, response).checkNotModified(asset.etag(), asset.lastModified())) {
+            return;
+        }
+
+        long length = asset.length();
+        long start = 0;
+        long end = length - 1;
+
+        HttpRange range = requestedRange(request, asset);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentType(asset.contentType().toString());
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (count >= MIN_SENDFILE_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file from the kernel after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, asset.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        transfer(asset, relativePath, start, count, response);
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    // One satisfiable-looking range, or null to send the whole file
+    private HttpRange requestedRange(HttpServletRequest request, Asset asset) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !rangeStillValid(request, asset)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null; // multipart ranges are not worth it for images
+        } catch (IllegalArgumentException e) {
+            return null; // malformed Range headers are ignored
+        }
+    }
+
+    // If-Range: only resume when the client still has the same version
+    private boolean rangeStillValid(HttpServletRequest request, Asset asset) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(asset.etag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == asset.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void transfer(Asset asset, String relativePath, long start, long count, HttpServletResponse response)
+            throws IOException {
+        try (FileChannel file = FileChannel.open(asset.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break; // file shrank underneath us
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (NoSuchFileException e) {
+            uploadAssetService.evict(relativePath);
+            response.reset();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found");
+        }
     }
 
 }
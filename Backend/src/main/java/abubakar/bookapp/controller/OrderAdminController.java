@@ -1,13 +1,16 @@
 package abubakar.bookapp.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,15 +20,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import abubakar.bookapp.models.Order;
 import abubakar.bookapp.models.RazorpayInfo;
+import abubakar.bookapp.payload.CursorSliceDTO;
 import abubakar.bookapp.payload.OrderRangeRequestDTO;
 import abubakar.bookapp.payload.OrderRangeStatsDTO;
 import abubakar.bookapp.payload.OrderStatsDTO;
 import abubakar.bookapp.payload.OrderStatusUpdateDTO;
+import abubakar.bookapp.service.OrderExportService;
 import abubakar.bookapp.service.OrderService;
 import abubakar.bookapp.service.PaymentService;
 
@@ -41,10 +48,34 @@ public class OrderAdminController {
     @Autowired
     private PaymentService paymentService;
 
-    // Fetch all orders (Admin only)
+    @Autowired
+    private OrderExportService orderExportService;
+
+    // Fetch orders newest first, one cursor slice at a time (Admin only)
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<CursorSliceDTO<Order>> getAllOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(CursorSliceDTO.of(orderService.getOrdersBefore(after, limit), Order::getId));
+    }
+
+    // Export every order as NDJSON (one order per line) or CSV (one item per line)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = OrderExportService.NDJSON) String format) {
+
+        String normalized = format.toLowerCase();
+        if (!OrderExportService.NDJSON.equals(normalized) && !OrderExportService.CSV.equals(normalized)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+
+        boolean csv = OrderExportService.CSV.equals(normalized);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("orders." + normalized).build().toString())
+                .body(out -> orderExportService.export(normalized, out));
     }
 
     // Fetch all razerInfo details
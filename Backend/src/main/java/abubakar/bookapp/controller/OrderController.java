@@ -1,6 +1,5 @@
 package abubakar.bookapp.controller;
 
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +12,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import abubakar.bookapp.models.Order;
+import abubakar.bookapp.payload.CursorSliceDTO;
+import abubakar.bookapp.payload.OrderHistoryDTO;
 import abubakar.bookapp.payload.OrderUpdateDTO;
 import abubakar.bookapp.payload.ReviewRequestDTO;
 import abubakar.bookapp.service.OrderService;
@@ -35,11 +37,14 @@ public class OrderController {
         return ResponseEntity.ok(savedOrder);
     }
 
-    // Get orders by user ID
+    // Get a user's orders newest first, one cursor slice at a time
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUserId(@PathVariable Long userId) {
-        List<Order> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorSliceDTO<OrderHistoryDTO>> getOrdersByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(CursorSliceDTO.of(orderService.getOrderHistory(userId, after, limit),
+                OrderHistoryDTO::getId));
     }
 
     // Edit an existing order (by orderId now)
@@ -2,6 +2,7 @@ package abubakar.bookapp.controller;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,14 +16,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.razorpay.Refund;
-
 import abubakar.bookapp.models.Order;
 import abubakar.bookapp.models.OrderItem;
 import abubakar.bookapp.models.RazorpayInfo;
+import abubakar.bookapp.models.RefundOutbox;
 import abubakar.bookapp.models.ReturnReplacement;
+import abubakar.bookapp.payload.CursorSliceDTO;
+import abubakar.bookapp.service.OrderPricing;
 import abubakar.bookapp.service.OrderService;
 import abubakar.bookapp.service.PaymentService;
+import abubakar.bookapp.service.RefundService;
 import abubakar.bookapp.service.ReturnReplacementService;
 
 @RestController
@@ -39,10 +42,15 @@ public class ReturnReplacementAdminController {
     @Autowired
     private OrderService orderService;
 
-    // Get all return/replacement requests
+    @Autowired
+    private RefundService refundService;
+
+    // Get return/replacement requests newest first, one cursor slice at a time
     @GetMapping("/all")
-    public ResponseEntity<List<ReturnReplacement>> getAllRequests() {
-        return ResponseEntity.ok(service.getAllRequests());
+    public ResponseEntity<CursorSliceDTO<ReturnReplacement>> getAllRequests(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(CursorSliceDTO.of(service.getRequestsBefore(after, limit), ReturnReplacement::getId));
     }
 
     // Get requests by status (optional filter)
@@ -105,33 +113,15 @@ public class ReturnReplacementAdminController {
         // Calculate refund
         double refundAmount = qty * item.getUnitPrice();
 
-        // Call Razorpay
-        Refund refund = paymentService.refundPayment(info.getRazorpayPaymentId(), refundAmount);
+        // Queue the Razorpay refund; the refund worker sends it in the background
+        RefundOutbox refund = refundService.enqueue(info, order.getId(), refundAmount);
 
         // UPDATE ORDER ITEM RETURN COUNT
         item.setReturnedQuantity(item.getReturnedQuantity() + qty);
 
-        // Recalculate subtotal (IMPORTANT)
-        int effectiveQty = item.getQuantity()
-                - item.getReturnedQuantity()
-                - item.getReplacedQuantity();
-
-        if (effectiveQty < 0)
-            effectiveQty = 0;
-
-        item.setSubtotal(item.getUnitPrice() * effectiveQty);
-
-        // Recalculate order totals
-        float subtotal = (float) order.getItems().stream()
-                .mapToDouble(OrderItem::getSubtotal)
-                .sum();
-
-        float gst = subtotal * 0.05f;
-        float total = subtotal + gst;
-
-        order.setSubtotal(subtotal);
-        order.setGst(gst);
-        order.setTotal(total);
+        // Recalculate subtotal and order totals (IMPORTANT)
+        item.setSubtotal(OrderPricing.effectiveSubtotal(item).floatValue());
+        OrderPricing.recalculateTotals(order);
 
         // Save updated order
         orderService.saveOrder(order);
@@ -144,7 +134,9 @@ public class ReturnReplacementAdminController {
 
         service.save(rr);
 
-        return ResponseEntity.ok(refund.toString());
+        return ResponseEntity.ok(Map.of(
+                "message", "Refund initiated successfully.",
+                "refundId", refund.getId()));
     }
 
 }
@@ -2,34 +2,42 @@ package abubakar.bookapp.controller;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Review;
 import abubakar.bookapp.models.User;
-import abubakar.bookapp.repository.BookRepository;
+import abubakar.bookapp.payload.CursorSliceDTO;
 import abubakar.bookapp.repository.UserRepository;
+import abubakar.bookapp.service.CatalogCacheService;
+import abubakar.bookapp.service.CatalogSearchService;
+import abubakar.bookapp.service.ReviewService;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RequestMapping("/api/user/books")
 public class UserBookController {
 
-    private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final CatalogSearchService catalogSearchService;
+    private final ReviewService reviewService;
+    private final CatalogCacheService catalogCacheService;
 
-    public UserBookController(BookRepository bookRepository, UserRepository userRepository) {
-        this.bookRepository = bookRepository;
+    public UserBookController(UserRepository userRepository, CatalogSearchService catalogSearchService,
+            ReviewService reviewService, CatalogCacheService catalogCacheService) {
         this.userRepository = userRepository;
+        this.catalogSearchService = catalogSearchService;
+        this.reviewService = reviewService;
+        this.catalogCacheService = catalogCacheService;
     }
 
     // Get paginated books for logged-in user
@@ -38,7 +46,9 @@ public class UserBookController {
     public ResponseEntity<?> getAllBooks(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size) {
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
 
         if (authentication == null || authentication.getName() == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated");
@@ -48,11 +58,13 @@ public class UserBookController {
         User user = userRepository.findByEmail(authentication.getName())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // Pageable object
-        Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
+        // Cursor slice when ?after= or ?limit= is given, no count query
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(catalogCacheService.getBookSlice(after, limit != null ? limit : size));
+        }
 
-        // Fetch paginated books
-        Page<Book> booksPage = bookRepository.findAll(pageable);
+        // Fetch paginated books, served from the catalog cache
+        Page<Book> booksPage = catalogCacheService.getBookPage(page, size);
 
         return ResponseEntity.ok(booksPage);
     }
@@ -62,7 +74,16 @@ public class UserBookController {
     public Page<Book> searchBooks(@RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "8") int size) {
-        return bookRepository.findByNameContainingIgnoreCase(name, PageRequest.of(page, size));
+        return catalogSearchService.searchBooks(name, PageRequest.of(page, size));
     }
-    
+
+    // Reviews of a book, newest or highest rated first, one cursor slice at a time
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<CursorSliceDTO<Review>> getReviews(@PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = ReviewService.SORT_RECENT) String sort) {
+        return ResponseEntity.ok(CursorSliceDTO.of(reviewService.getReviews(id, after, limit, sort), Review::getId));
+    }
+
 }
@@ -4,8 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.util.List;
 
+import abubakar.bookapp.service.CatalogChangeListener;
+
 @Entity
 @Table(name = "authors")
+@EntityListeners(CatalogChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -3,13 +3,16 @@ package abubakar.bookapp.models;
 import jakarta.persistence.*;
 import lombok.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+
+import abubakar.bookapp.service.CatalogChangeListener;
 
 @Entity
 @Table(name = "books")
+@EntityListeners(CatalogChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -36,9 +39,14 @@ public class Book {
     @Column(nullable = false)
     private Integer quantity = 5;
 
-    @ElementCollection
-    @CollectionTable(name = "book_reviews", joinColumns = @JoinColumn(name = "book_id"))
-    private List<Review> reviews = new ArrayList<>();
+    // Sum and count of review ratings; only changed by atomic updates in BookRepository.
+    // Reviews themselves live in the reviews table (see ReviewRepository)
+    @JsonIgnore
+    @Column(name = "rating_sum", updatable = false)
+    private Double ratingSum = 0.0;
+
+    @Column(name = "rating_count", updatable = false)
+    private Long ratingCount = 0L;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -59,17 +67,10 @@ public class Book {
         this.updatedAt = LocalDateTime.now();
     }
 
-    public void addReview(Review review) {
-        this.reviews.add(review);
-    }
-
+    // Average of the rated reviews only
     public float getAverageRating() {
-        if (reviews.isEmpty()) return 0f;
-        float sum = 0;
-        for (Review r : reviews) {
-            if (r.getRating() != null) sum += r.getRating();
-        }
-        return sum / reviews.size();
+        if (ratingSum == null || ratingCount == null || ratingCount == 0) return 0f;
+        return (float) (ratingSum / ratingCount);
     }
     
 }
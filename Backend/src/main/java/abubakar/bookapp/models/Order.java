@@ -6,15 +6,30 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+import abubakar.bookapp.service.OrderRollupListener;
+
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at", columnList = "created_at"))
+@EntityListeners(OrderRollupListener.class)
+// Fetch plans: lists need the customer, changes need the items, responses with one order need both
+@NamedEntityGraph(name = Order.LIST, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = Order.WITH_ITEMS, attributeNodes = @NamedAttributeNode("items"))
+@NamedEntityGraph(name = Order.DETAIL, attributeNodes = {
+        @NamedAttributeNode("user"), @NamedAttributeNode("items") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    public static final String LIST = "Order.list";
+    public static final String WITH_ITEMS = "Order.withItems";
+    public static final String DETAIL = "Order.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -52,15 +67,26 @@ public class Order {
     @Column(name = "phone_number", nullable = false, length = 20)
     private String phoneNumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     // New relation: One order can have multiple order items
+    // Outside a fetch plan, the items of up to 50 loaded orders come in one query
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<OrderItem> items;
 
+    // Status and total the sales rollups currently count for this order
+    @Transient
+    @JsonIgnore
+    private String rolledUpStatus;
+
+    @Transient
+    @JsonIgnore
+    private Float rolledUpTotal;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,72 @@
+package abubakar.bookapp.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refund_outbox", indexes = {
+        @Index(name = "idx_refund_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_refund_outbox_payment", columnList = "razorpay_payment_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "razorpay_payment_id", nullable = false)
+    private String razorpayPaymentId;
+
+    // Order the refund belongs to (the order itself may be deleted afterwards)
+    @Column(name = "order_id")
+    private Long orderId;
+
+    // Amount in INR, same unit as RazorpayInfo.refundedAmount
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(nullable = false, length = 20)
+    private String status; // PENDING, IN_FLIGHT, COMPLETED, FAILED, UNKNOWN
+
+    // A previous attempt may have reached Razorpay; look for the refund before sending it again
+    @Column(name = "outcome_unknown", nullable = false)
+    private boolean outcomeUnknown = false;
+
+    // When a worker took the refund IN_FLIGHT
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "razorpay_refund_id")
+    private String razorpayRefundId;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+        if (this.status == null) {
+            this.status = "PENDING";
+        }
+    }
+}
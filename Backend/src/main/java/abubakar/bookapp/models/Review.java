@@ -1,14 +1,49 @@
 package abubakar.bookapp.models;
 
-import jakarta.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
 import lombok.*;
 
-@Embeddable
+// One review of a book, stored on its own so adding a review is a single insert
+@Entity
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_book_id", columnList = "book_id, id"),
+        @Index(name = "idx_reviews_book_rating", columnList = "book_id, rating, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(columnDefinition = "TEXT")
     private String comment;
-    private Float rating;
+
+    // 0 when the review has no rating; never NULL, so the rating index covers the sort
+    @Column(nullable = false, columnDefinition = "FLOAT DEFAULT 0")
+    private Float rating = 0f;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public Review(Long bookId, String comment, Float rating) {
+        this.bookId = bookId;
+        this.comment = comment;
+        this.rating = rating != null ? rating : 0f;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package abubakar.bookapp.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Order count and sales of one hour, excluding cancelled orders
+@Entity
+@Table(name = "sales_hourly_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesHourlyRollup {
+
+    // Start of the hour the orders were created in
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "sales_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal salesTotal;
+}
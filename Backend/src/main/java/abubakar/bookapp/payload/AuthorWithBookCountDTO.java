@@ -15,4 +15,10 @@ public class AuthorWithBookCountDTO {
     private String gender;
     private List<String> programmingLanguages;
     private Long bookCount;
+
+    // Used by the aggregate query; languages are filled in afterwards
+    public AuthorWithBookCountDTO(Long id, String name, String description, String imageUrl,
+            String gender, Long bookCount) {
+        this(id, name, description, imageUrl, gender, null, bookCount);
+    }
 }
@@ -0,0 +1,39 @@
+package abubakar.bookapp.payload;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One slice of a newest-first listing; pass nextCursor as ?after= to get the next one
+@Data
+@AllArgsConstructor
+public class CursorSliceDTO<T> {
+
+    public static final int MAX_LIMIT = 100;
+
+    private List<T> content;
+    private Long nextCursor;
+    private boolean hasNext;
+
+    public static <T> CursorSliceDTO<T> of(Slice<T> slice, Function<T, Long> idOf) {
+        List<T> content = slice.getContent();
+        Long nextCursor = slice.hasNext() ? idOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorSliceDTO<>(content, nextCursor, slice.hasNext());
+    }
+
+    // Id to seek below; no cursor means start from the newest row
+    public static long seekFrom(Long after) {
+        return after != null ? after : Long.MAX_VALUE;
+    }
+
+    // Slice request of at most MAX_LIMIT rows, without a count query
+    public static Pageable limit(int limit) {
+        return PageRequest.ofSize(Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+}
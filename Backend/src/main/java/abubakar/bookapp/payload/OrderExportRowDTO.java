@@ -0,0 +1,36 @@
+package abubakar.bookapp.payload;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One order line of the admin export, with its order's columns repeated
+@Data
+@AllArgsConstructor
+public class OrderExportRowDTO {
+    private Long orderId;
+    private Long userId;
+    private String userName;
+    private String orderMode;
+    private String orderStatus;
+    private LocalDateTime createdAt;
+    private LocalDate deliveryDate;
+    private String address;
+    private String phoneNumber;
+    private float subtotal;
+    private float gst;
+    private float total;
+
+    // Item columns are null for an order without items
+    private Long itemId;
+    private Long bookId;
+    private String bookName;
+    private String authorName;
+    private Integer quantity;
+    private Integer returnedQuantity;
+    private Integer replacedQuantity;
+    private Float unitPrice;
+    private Float itemSubtotal;
+}
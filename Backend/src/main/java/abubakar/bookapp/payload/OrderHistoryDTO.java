@@ -0,0 +1,35 @@
+package abubakar.bookapp.payload;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// An order as the customer sees it in their history, without the User entity
+@Data
+@AllArgsConstructor
+public class OrderHistoryDTO {
+    private Long id;
+    private String userName;
+    private float subtotal;
+    private float gst;
+    private float total;
+    private String orderMode;
+    private String orderStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDate deliveryDate;
+    private String address;
+    private String phoneNumber;
+    private List<OrderHistoryItemDTO> items;
+
+    // Used by the history query; items are filled in afterwards
+    public OrderHistoryDTO(Long id, String userName, float subtotal, float gst, float total,
+            String orderMode, String orderStatus, LocalDateTime createdAt, LocalDateTime updatedAt,
+            LocalDate deliveryDate, String address, String phoneNumber) {
+        this(id, userName, subtotal, gst, total, orderMode, orderStatus, createdAt, updatedAt,
+                deliveryDate, address, phoneNumber, null);
+    }
+}
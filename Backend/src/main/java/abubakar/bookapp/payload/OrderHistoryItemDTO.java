@@ -0,0 +1,25 @@
+package abubakar.bookapp.payload;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One line of an order in the customer's order history
+@Data
+@AllArgsConstructor
+public class OrderHistoryItemDTO {
+    @JsonIgnore
+    private Long orderId;
+    private Long id;
+    private Long bookId;
+    private String bookName;
+    private String authorName;
+    private int quantity;
+    private int returnedQuantity;
+    private int replacedQuantity;
+    private float unitPrice;
+    private float subtotal;
+    private String review;
+    private Float rating;
+}
@@ -1,14 +1,54 @@
 package abubakar.bookapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import abubakar.bookapp.models.Author;
+import abubakar.bookapp.payload.AuthorNameDTO;
+import abubakar.bookapp.payload.AuthorWithBookCountDTO;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
     // Case-insensitive search by partial match
     Page<Author> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    // Authors with their book count in a single query
+    @Query(value = "SELECT new abubakar.bookapp.payload.AuthorWithBookCountDTO("
+            + "a.id, a.name, a.description, a.imageUrl, a.gender, COUNT(b.id)) "
+            + "FROM Author a LEFT JOIN Book b ON b.author = a "
+            + "GROUP BY a.id, a.name, a.description, a.imageUrl, a.gender",
+            countQuery = "SELECT COUNT(a) FROM Author a")
+    Page<AuthorWithBookCountDTO> findAllWithBookCount(Pageable pageable);
+
+    // Keyset page of authors with book counts, newest first
+    @Query("SELECT new abubakar.bookapp.payload.AuthorWithBookCountDTO("
+            + "a.id, a.name, a.description, a.imageUrl, a.gender, COUNT(b.id)) "
+            + "FROM Author a LEFT JOIN Book b ON b.author = a "
+            + "WHERE a.id < :id "
+            + "GROUP BY a.id, a.name, a.description, a.imageUrl, a.gender "
+            + "ORDER BY a.id DESC")
+    Slice<AuthorWithBookCountDTO> findWithBookCountByIdLessThan(Long id, Pageable pageable);
+
+    // Programming languages of several authors as (authorId, language) rows
+    @Query("SELECT a.id, l FROM Author a JOIN a.programmingLanguages l WHERE a.id IN :authorIds")
+    List<Object[]> findProgrammingLanguages(Collection<Long> authorIds);
+
+    // Names only, for the name list snapshots
+    @Query("SELECT a.name FROM Author a")
+    List<String> findAllNames();
+
+    @Query("SELECT new abubakar.bookapp.payload.AuthorNameDTO(a.id, a.name) FROM Author a")
+    List<AuthorNameDTO> findAllNameRefs();
+
+    // Authors with their languages loaded in one query
+    @EntityGraph(attributePaths = "programmingLanguages")
+    List<Author> findWithLanguagesByIdIn(Collection<Long> ids);
+
 }
@@ -1,8 +1,14 @@
 package abubakar.bookapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import abubakar.bookapp.models.Book;
 
@@ -13,5 +19,39 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     // Case-insensitive search by partial match
     Page<Book> findByNameContainingIgnoreCase(String name, Pageable pageable);
-    
+
+    List<Book> findByAuthorId(Long authorId);
+
+    // Add one rating to the book's aggregates without reading them first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.ratingSum = COALESCE(b.ratingSum, 0) + :rating, "
+            + "b.ratingCount = COALESCE(b.ratingCount, 0) + 1 WHERE b.id = :bookId")
+    int addRating(Long bookId, double rating);
+
+    // Compute aggregates for books that predate the rating columns
+    @Modifying
+    @Query(value = "UPDATE books SET "
+            + "rating_sum = COALESCE((SELECT SUM(r.rating) FROM reviews r WHERE r.book_id = books.id), 0), "
+            + "rating_count = (SELECT COUNT(NULLIF(r.rating, 0)) FROM reviews r WHERE r.book_id = books.id) "
+            + "WHERE rating_count IS NULL", nativeQuery = true)
+    int backfillRatings();
+
+    // Keyset page: books older than the cursor, newest first
+    Slice<Book> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
+    // Books of an order in one query, sorted by id for stock reservation
+    @EntityGraph(attributePaths = "author")
+    List<Book> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // Names only, for the name list snapshot
+    @Query("SELECT b.name FROM Book b")
+    List<String> findAllNames();
+
+    // Ids only; the catalog cache keeps listings as ids and the books one by one
+    @Query("SELECT b.id FROM Book b")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id < :id ORDER BY b.id DESC")
+    Slice<Long> findIdsByIdLessThan(Long id, Pageable pageable);
+
 }
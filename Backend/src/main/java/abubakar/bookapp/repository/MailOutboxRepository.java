@@ -0,0 +1,34 @@
+package abubakar.bookapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import abubakar.bookapp.models.MailOutbox;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // Next batch of mails that are due for an attempt
+    List<MailOutbox> findTop50ByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, LocalDateTime now);
+
+    // Take a mail for this worker; 0 means another worker got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = 'IN_FLIGHT', m.claimedAt = :now WHERE m.id = :id AND m.status = 'PENDING'")
+    int claim(Long id, LocalDateTime now);
+
+    // Return mails whose worker died mid-batch to the queue; some of them may already have gone out
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = 'PENDING' WHERE m.status = 'IN_FLIGHT' AND m.claimedAt < :claimedBefore")
+    int releaseStaleClaims(LocalDateTime claimedBefore);
+
+    long countByStatus(String status);
+
+}
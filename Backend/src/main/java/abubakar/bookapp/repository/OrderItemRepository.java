@@ -1,12 +1,22 @@
 package abubakar.bookapp.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import abubakar.bookapp.models.OrderItem;
+import abubakar.bookapp.payload.OrderHistoryItemDTO;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    // Items of several orders for the order history, in one query
+    @Query("SELECT new abubakar.bookapp.payload.OrderHistoryItemDTO("
+            + "i.order.id, i.id, i.bookId, i.bookName, i.authorName, i.quantity, i.returnedQuantity, "
+            + "i.replacedQuantity, i.unitPrice, i.subtotal, i.review, i.rating) "
+            + "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderHistoryItemDTO> findHistoryItems(Collection<Long> orderIds);
 }
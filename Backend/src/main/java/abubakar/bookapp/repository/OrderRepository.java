@@ -1,37 +1,46 @@
 package abubakar.bookapp.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import abubakar.bookapp.models.Order;
+import abubakar.bookapp.payload.OrderHistoryDTO;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    // Orders by user
-    List<Order> findByUserId(Long userId);
+    // Keyset page of a user's order history, newest first; ids grow with createdAt
+    @Query("SELECT new abubakar.bookapp.payload.OrderHistoryDTO("
+            + "o.id, o.userName, o.subtotal, o.gst, o.total, o.orderMode, o.orderStatus, "
+            + "o.createdAt, o.updatedAt, o.deliveryDate, o.address, o.phoneNumber) "
+            + "FROM Order o "
+            + "WHERE o.user.id = :userId AND o.id < :id "
+            + "ORDER BY o.id DESC")
+    Slice<OrderHistoryDTO> findHistoryByUserIdAndIdLessThan(Long userId, Long id, Pageable pageable);
 
-    // Today's order count (excluding cancelled)
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :dateTime AND o.orderStatus <> 'Cancelled'")
-    long countTodaysOrders(LocalDateTime dateTime);
+    // One order with its items, for changes that do not need the customer
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsById(Long id);
 
-    // Today's sales amount
-    @Query("SELECT COALESCE(SUM(o.total),0) FROM Order o WHERE o.createdAt >= :dateTime AND o.orderStatus <> 'Cancelled'")
-    float sumTodaysOrders(LocalDateTime dateTime);
+    // One order with its items and customer, for responses that return the whole order
+    @EntityGraph(Order.DETAIL)
+    Optional<Order> findDetailById(Long id);
 
-    // Total orders (excluding cancelled)
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.orderStatus <> 'Cancelled'")
-    long countTotalOrders();
-
-    // Total sales (excluding cancelled)
-    @Query("SELECT COALESCE(SUM(o.total),0) FROM Order o WHERE o.orderStatus <> 'Cancelled'")
-    float sumTotalOrders();
+    // Keyset page: orders older than the cursor, newest first.
+    // Customers are joined; items come in batches, since joining them would page in memory.
+    @EntityGraph(Order.LIST)
+    Slice<Order> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
 
     // Latest 5 orders
+    @EntityGraph(Order.LIST)
     List<Order> findTop5ByOrderByCreatedAtDesc();
 
     // Orders in date range
@@ -42,4 +51,18 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.total),0) FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate AND o.orderStatus <> 'Cancelled'")
     float sumOrdersInRange(LocalDateTime startDate, LocalDateTime endDate);
 
+    // Orders in [startDate, endDate)
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate AND o.orderStatus <> 'Cancelled'")
+    long countOrdersUntil(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Sales in [startDate, endDate)
+    @Query("SELECT COALESCE(SUM(o.total),0) FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate AND o.orderStatus <> 'Cancelled'")
+    float sumOrdersUntil(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Order count and sales per hour as (year, month, day, hour, count, sum) rows
+    @Query("SELECT year(o.createdAt), month(o.createdAt), day(o.createdAt), hour(o.createdAt), COUNT(o), SUM(o.total) "
+            + "FROM Order o WHERE o.orderStatus <> 'Cancelled' "
+            + "GROUP BY year(o.createdAt), month(o.createdAt), day(o.createdAt), hour(o.createdAt)")
+    List<Object[]> sumOrdersByHour();
+
 }
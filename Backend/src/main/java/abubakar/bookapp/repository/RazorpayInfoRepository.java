@@ -5,4 +5,6 @@ import abubakar.bookapp.models.RazorpayInfo;
 
 public interface RazorpayInfoRepository extends JpaRepository<RazorpayInfo, Long> {
     RazorpayInfo findByOrderId(Long orderId);
+
+    RazorpayInfo findByRazorpayPaymentId(String razorpayPaymentId);
 }
@@ -0,0 +1,39 @@
+package abubakar.bookapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import abubakar.bookapp.models.RefundOutbox;
+
+@Repository
+public interface RefundOutboxRepository extends JpaRepository<RefundOutbox, Long> {
+
+    // Next batch of refunds that are due for an attempt
+    List<RefundOutbox> findTop20ByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status,
+            LocalDateTime now);
+
+    // Take a refund for this worker; 0 means another worker got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefundOutbox r SET r.status = 'IN_FLIGHT', r.claimedAt = :now WHERE r.id = :id AND r.status = 'PENDING'")
+    int claim(Long id, LocalDateTime now);
+
+    // Return refunds whose worker died mid-flight to the queue; Razorpay may have received them
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefundOutbox r SET r.status = 'PENDING', r.outcomeUnknown = true "
+            + "WHERE r.status = 'IN_FLIGHT' AND r.claimedAt < :claimedBefore")
+    int releaseStaleClaims(LocalDateTime claimedBefore);
+
+    // Refunds queued but not yet confirmed by Razorpay, including those that may have been paid
+    @Query("SELECT COALESCE(SUM(r.amount), 0) FROM RefundOutbox r WHERE r.razorpayPaymentId = :paymentId "
+            + "AND r.status IN ('PENDING', 'IN_FLIGHT', 'UNKNOWN')")
+    double sumPendingAmount(String paymentId);
+
+}
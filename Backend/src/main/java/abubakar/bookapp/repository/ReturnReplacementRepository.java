@@ -1,6 +1,8 @@
 package abubakar.bookapp.repository;
 
 import abubakar.bookapp.models.ReturnReplacement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -11,6 +13,9 @@ public interface ReturnReplacementRepository extends JpaRepository<ReturnReplace
     List<ReturnReplacement> findByUserId(Long userId);
 
     List<ReturnReplacement> findByStatus(String status);
+
+    // Keyset page: requests older than the cursor, newest first
+    Slice<ReturnReplacement> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
     
     //Prevent duplicate requests
     boolean existsByOrderIdAndBookIdAndStatusIn(Long orderId, Long bookId, List<String> statuses);
@@ -0,0 +1,24 @@
+package abubakar.bookapp.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import abubakar.bookapp.models.Review;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    // Keyset page of a book's reviews, newest first
+    Slice<Review> findByBookIdAndIdLessThanOrderByIdDesc(Long bookId, Long id, Pageable pageable);
+
+    // Keyset page of a book's reviews, highest rated first (unrated, rating 0, last).
+    // Seeks and sorts on the raw columns so idx_reviews_book_rating serves it without a filesort.
+    @Query("SELECT r FROM Review r WHERE r.bookId = :bookId "
+            + "AND (r.rating < :rating OR (r.rating = :rating AND r.id < :id)) "
+            + "ORDER BY r.rating DESC, r.id DESC")
+    Slice<Review> findByBookIdRatedBelow(Long bookId, float rating, Long id, Pageable pageable);
+
+}
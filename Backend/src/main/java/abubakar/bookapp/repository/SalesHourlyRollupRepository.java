@@ -0,0 +1,33 @@
+package abubakar.bookapp.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import abubakar.bookapp.models.SalesHourlyRollup;
+import abubakar.bookapp.payload.OrderRangeStatsDTO;
+
+@Repository
+public interface SalesHourlyRollupRepository extends JpaRepository<SalesHourlyRollup, LocalDateTime> {
+
+    // Totals of the hours in [from, to)
+    @Query("SELECT new abubakar.bookapp.payload.OrderRangeStatsDTO("
+            + "COALESCE(SUM(r.orderCount), 0), COALESCE(SUM(r.salesTotal), 0)) "
+            + "FROM SalesHourlyRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    OrderRangeStatsDTO totalsBetween(LocalDateTime from, LocalDateTime to);
+
+    // Totals of every hour from the given one on
+    @Query("SELECT new abubakar.bookapp.payload.OrderRangeStatsDTO("
+            + "COALESCE(SUM(r.orderCount), 0), COALESCE(SUM(r.salesTotal), 0)) "
+            + "FROM SalesHourlyRollup r WHERE r.bucketStart >= :from")
+    OrderRangeStatsDTO totalsSince(LocalDateTime from);
+
+    // Totals of all hours
+    @Query("SELECT new abubakar.bookapp.payload.OrderRangeStatsDTO("
+            + "COALESCE(SUM(r.orderCount), 0), COALESCE(SUM(r.salesTotal), 0)) "
+            + "FROM SalesHourlyRollup r")
+    OrderRangeStatsDTO totalsAll();
+
+}
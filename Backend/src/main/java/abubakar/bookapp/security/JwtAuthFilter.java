@@ -33,9 +33,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtUtils.validateJwtToken(token)) {
-                String username = jwtUtils.getUsernameFromJwtToken(token);
-                String role = jwtUtils.getRoleFromJwtToken(token);
+            // Verified once, then served from the token cache until it expires
+            JwtClaims claims = jwtUtils.parseToken(token);
+
+            if (claims != null) {
+                String username = claims.username();
+                String role = claims.role();
 
                 // Ensure Spring Security format: ROLE_XYZ
                 if (!role.startsWith("ROLE_")) {
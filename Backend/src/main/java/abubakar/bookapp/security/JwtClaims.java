@@ -0,0 +1,9 @@
+package abubakar.bookapp.security;
+
+// Verified contents of a JWT
+public record JwtClaims(String username, String role, long expiresAtMs) {
+
+    public boolean isExpired(long nowMs) {
+        return nowMs >= expiresAtMs;
+    }
+}
@@ -5,17 +5,32 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtils {
 
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
     private final SecretKey key = Keys.hmacShaKeyFor(
         "my-super-secret-key-my-super-secret-key".getBytes()
     );
 
     private final long jwtExpirationMs = 86400000; // 1 day
 
+    // Immutable and thread-safe, so one parser serves every request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    // Already verified tokens by SHA-256 hash, dropped once they expire
+    private final Map<String, JwtClaims> verifiedTokens = new ConcurrentHashMap<>();
+
     /** Generate a token with multiple roles */
     public String generateJwtToken(String username, String role) {
         return Jwts.builder()
@@ -27,31 +42,54 @@ public class JwtUtils {
                 .compact();
     }
 
-    public String getUsernameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    /** Verify a token once and return its claims, or null when it is invalid or expired */
+    public JwtClaims parseToken(String token) {
+        long now = System.currentTimeMillis();
+        String hash = hash(token);
+
+        JwtClaims cached = verifiedTokens.get(hash);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.remove(hash);
+            return null;
+        }
+
+        JwtClaims claims;
+        try {
+            Claims body = parser.parseClaimsJws(token).getBody();
+            Date expiration = body.getExpiration();
+            claims = new JwtClaims(body.getSubject(), body.get("role", String.class),
+                    expiration != null ? expiration.getTime() : now + jwtExpirationMs);
+        } catch (JwtException | IllegalArgumentException e) {
+            System.err.println("Invalid JWT token: " + e.getMessage());
+            return null;
+        }
+
+        if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+            evict(now);
+        }
+        verifiedTokens.put(hash, claims);
+        return claims;
     }
 
-    public String getRoleFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+    // ---------------- Helper Methods ----------------
+
+    // Drop expired tokens; if the cache is still full, start over
+    private void evict(long now) {
+        verifiedTokens.values().removeIf(claims -> claims.isExpired(now));
+        if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+            verifiedTokens.clear();
+        }
     }
 
-     public boolean validateJwtToken(String token) {
+    private static String hash(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
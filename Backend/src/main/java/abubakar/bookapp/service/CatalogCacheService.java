@@ -0,0 +1,171 @@
+package abubakar.bookapp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import abubakar.bookapp.models.Author;
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.payload.AuthorNameDTO;
+import abubakar.bookapp.payload.CursorSliceDTO;
+import abubakar.bookapp.repository.AuthorRepository;
+import abubakar.bookapp.repository.BookRepository;
+
+/**
+ * Read-through cache for the shop front: book listings, single books and the
+ * book/author name lists.
+ *
+ * Books are cached one by one, listings only as lists of ids, so a stock
+ * change after checkout drops just the books it touched. Entries are dropped
+ * after commit on every CatalogChangedEvent and otherwise expire by size/TTL
+ * (see CacheConfig).
+ */
+@Service
+public class CatalogCacheService {
+
+    public static final String BOOKS = "catalog.books";
+    public static final String LISTINGS = "catalog.listings";
+    public static final String NAMES = "catalog.names";
+
+    private static final String BOOK_NAMES = "books";
+    private static final String AUTHOR_NAMES = "authors";
+    private static final String AUTHOR_REFS = "authorRefs";
+
+    // Bumped on every invalidation, so a load racing with a commit never stays cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // One page of books, newest first
+    public Page<Book> getBookPage(int page, int size) {
+        Page<Long> ids = cache(LISTINGS).get("page:" + page + ":" + size,
+                () -> bookRepository.findAllIds(PageRequest.of(page, size, Sort.by("id").descending())));
+        return new PageImpl<>(getBooks(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    // One keyset slice of books, newest first
+    public CursorSliceDTO<Book> getBookSlice(Long after, int limit) {
+        long seek = CursorSliceDTO.seekFrom(after);
+        Slice<Long> ids = cache(LISTINGS).get("after:" + seek + ":" + limit,
+                () -> bookRepository.findIdsByIdLessThan(seek, CursorSliceDTO.limit(limit)));
+        return CursorSliceDTO.of(new SliceImpl<>(getBooks(ids.getContent()), ids.getPageable(), ids.hasNext()),
+                Book::getId);
+    }
+
+    public Optional<Book> getBook(Long id) {
+        return getBooks(List.of(id)).stream().findFirst();
+    }
+
+    // All book names, sorted case-insensitively; rebuilt only after a listing change
+    public CatalogNames getBookNames() {
+        return cache(NAMES).get(BOOK_NAMES, () -> CatalogNames.of(bookRepository.findAllNames()));
+    }
+
+    // All author names, sorted case-insensitively; rebuilt only after a listing change
+    public CatalogNames getAuthorNames() {
+        return cache(NAMES).get(AUTHOR_NAMES, () -> CatalogNames.of(authorRepository.findAllNames()));
+    }
+
+    // Id and name of every author, for the book form
+    public List<AuthorNameDTO> getAuthorRefs() {
+        return cache(NAMES).get(AUTHOR_REFS, () -> authorRepository.findAllNameRefs());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidations.incrementAndGet();
+
+        if (event.authorsChanged()) {
+            cache(BOOKS).clear();
+        } else {
+            event.bookIds().forEach(cache(BOOKS)::evict);
+        }
+
+        if (event.listingChanged()) {
+            cache(LISTINGS).clear();
+            cache(NAMES).clear();
+        }
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    // Books in the order of the given ids, loading every miss with one query
+    private List<Book> getBooks(List<Long> ids) {
+        Cache books = cache(BOOKS);
+        Map<Long, Book> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : ids) {
+            Book book = books.get(id, Book.class);
+            if (book != null) {
+                found.put(id, book);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            List<Book> loaded = transactionTemplate.execute(status -> loadBooks(missing));
+            for (Book book : loaded) {
+                books.put(book.getId(), book);
+                found.put(book.getId(), book);
+            }
+            if (invalidations.get() != generation) {
+                loaded.forEach(book -> books.evict(book.getId()));
+            }
+        }
+
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    // Books with everything they serialize loaded, so they can be cached outside a session
+    private List<Book> loadBooks(List<Long> ids) {
+        List<Book> books = bookRepository.findByIdInOrderByIdAsc(ids);
+
+        // Initializes the lazy language bags of these same author instances
+        Set<Long> authorIds = books.stream()
+                .map(Book::getAuthor)
+                .filter(Objects::nonNull)
+                .map(Author::getId)
+                .collect(Collectors.toSet());
+        if (!authorIds.isEmpty()) {
+            authorRepository.findWithLanguagesByIdIn(authorIds);
+        }
+        return books;
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), name);
+    }
+
+}
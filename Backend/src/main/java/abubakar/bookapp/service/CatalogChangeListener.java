@@ -0,0 +1,37 @@
+package abubakar.bookapp.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import abubakar.bookapp.models.Author;
+import abubakar.bookapp.models.Book;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Publishes a CatalogChangedEvent for every book and author insert, update
+ * and delete made through the EntityManager, so admin edits, order
+ * cancellations and return restocks all invalidate the catalog cache.
+ *
+ * Bulk JDBC/JPQL updates bypass these callbacks and publish the event
+ * themselves (stock reservation, ratings).
+ */
+@Component
+public class CatalogChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Book book) {
+            events.publishEvent(CatalogChangedEvent.bookChanged(book.getId()));
+        } else if (entity instanceof Author) {
+            events.publishEvent(CatalogChangedEvent.authorChanged());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package abubakar.bookapp.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever catalog data changes, so CatalogCacheService can drop the
+ * affected entries once the surrounding transaction has committed.
+ *
+ * @param bookIds        books whose cached copy is stale
+ * @param listingChanged books were added, removed or renamed, so pages and name lists are stale too
+ * @param authorsChanged an author changed; every book embeds its author, so everything is stale
+ */
+public record CatalogChangedEvent(Collection<Long> bookIds, boolean listingChanged, boolean authorsChanged) {
+
+    // Stock or rating of existing books changed
+    public static CatalogChangedEvent stockChanged(Collection<Long> bookIds) {
+        return new CatalogChangedEvent(bookIds, false, false);
+    }
+
+    // A book was created, edited or deleted
+    public static CatalogChangedEvent bookChanged(Long bookId) {
+        return new CatalogChangedEvent(List.of(bookId), true, false);
+    }
+
+    // An author was created, edited or deleted
+    public static CatalogChangedEvent authorChanged() {
+        return new CatalogChangedEvent(List.of(), true, true);
+    }
+}
@@ -0,0 +1,23 @@
+package abubakar.bookapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Sorted snapshot of book or author names, with a strong ETag derived from
+ * the content, so the same names always get the same tag, even after a restart.
+ */
+public record CatalogNames(List<String> names, String etag) {
+
+    public static CatalogNames of(Collection<String> names) {
+        List<String> sorted = names.stream()
+                .sorted(Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        String content = String.join("\n", sorted.stream().map(String::valueOf).toList());
+        return new CatalogNames(sorted, "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"");
+    }
+}
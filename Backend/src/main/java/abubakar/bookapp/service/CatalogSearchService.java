@@ -0,0 +1,287 @@
+package abubakar.bookapp.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import abubakar.bookapp.models.Author;
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.repository.AuthorRepository;
+import abubakar.bookapp.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process Lucene index over book name, description and author name, and
+ * over author names. Rebuilt from the database on startup and kept up to date
+ * by the book and author create/update/delete paths.
+ *
+ * Each search word must match a book, either exactly, as a prefix, or within
+ * one or two typos. Name matches rank above author matches, and author matches
+ * rank above description matches.
+ */
+@Service
+public class CatalogSearchService {
+
+    private static final String TYPE = "type";
+    private static final String KEY = "key";
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AUTHOR = "author";
+
+    private static final String BOOK = "book";
+    private static final String AUTHOR_TYPE = "author";
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    public CatalogSearchService() throws IOException {
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    // Load the whole catalog into the index
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            writer.deleteAll();
+
+            Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+            Page<Book> books;
+            do {
+                books = bookRepository.findAll(pageable);
+                for (Book book : books) {
+                    writer.addDocument(toDocument(book));
+                }
+                pageable = books.nextPageable();
+            } while (books.hasNext());
+
+            for (Author author : authorRepository.findAll()) {
+                writer.addDocument(toDocument(author));
+            }
+
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build catalog search index", e);
+        }
+    }
+
+    public void indexBook(Book book) {
+        update(new Term(KEY, BOOK + ":" + book.getId()), toDocument(book));
+    }
+
+    public void removeBook(Long bookId) {
+        delete(new Term(KEY, BOOK + ":" + bookId));
+    }
+
+    // Index an author; books are re-indexed too when the name changes
+    public void indexAuthor(Author author, String previousName) {
+        update(new Term(KEY, AUTHOR_TYPE + ":" + author.getId()), toDocument(author));
+
+        if (previousName != null && !previousName.equals(author.getName())) {
+            for (Book book : bookRepository.findByAuthorId(author.getId())) {
+                indexBook(book);
+            }
+        }
+    }
+
+    public void removeAuthor(Long authorId) {
+        delete(new Term(KEY, AUTHOR_TYPE + ":" + authorId));
+    }
+
+    // Ranked, prefix- and typo-tolerant book search
+    public Page<Book> searchBooks(String text, Pageable pageable) {
+        Page<Long> ids = search(BOOK, text, pageable, Map.of(NAME, 4f, AUTHOR, 2f, DESCRIPTION, 1f));
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(ids.getContent()).forEach(book -> books.put(book.getId(), book));
+        return inRankOrder(ids, books);
+    }
+
+    // Ranked, prefix- and typo-tolerant author search
+    public Page<Author> searchAuthors(String text, Pageable pageable) {
+        Page<Long> ids = search(AUTHOR_TYPE, text, pageable, Map.of(NAME, 1f));
+        Map<Long, Author> authors = new HashMap<>();
+        authorRepository.findAllById(ids.getContent()).forEach(author -> authors.put(author.getId(), author));
+        return inRankOrder(ids, authors);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private Page<Long> search(String type, String text, Pageable pageable, Map<String, Float> fields) {
+        List<String> tokens = analyze(text);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TYPE, type)), BooleanClause.Occur.FILTER);
+
+        // Every word has to match in at least one field
+        for (String token : tokens) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            fields.forEach((field, boost) -> {
+                anyField.add(boost(new TermQuery(new Term(field, token)), boost * 3), BooleanClause.Occur.SHOULD);
+                anyField.add(boost(new PrefixQuery(new Term(field, token)), boost * 2), BooleanClause.Occur.SHOULD);
+                int maxEdits = token.length() < 4 ? 0 : token.length() < 7 ? 1 : 2;
+                if (maxEdits > 0) {
+                    anyField.add(boost(new FuzzyQuery(new Term(field, token), maxEdits, 1), boost),
+                            BooleanClause.Occur.SHOULD);
+                }
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+                TopDocs top = searcher.search(query.build(), Math.max(limit, 1));
+
+                List<Long> ids = new ArrayList<>();
+                ScoreDoc[] hits = top.scoreDocs;
+                for (int i = (int) pageable.getOffset(); i < hits.length; i++) {
+                    Document doc = searcher.storedFields().document(hits[i].doc);
+                    ids.add(doc.getField(ID).numericValue().longValue());
+                }
+                long total = top.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                        ? top.totalHits.value
+                        : searcher.count(query.build());
+                return new PageImpl<>(ids, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Catalog search failed", e);
+        }
+    }
+
+    // Keep the ranking from the index and skip rows deleted in the meantime
+    private static <T> Page<T> inRankOrder(Page<Long> ids, Map<Long, T> rows) {
+        List<T> content = ids.getContent().stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    private List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private Document toDocument(Book book) {
+        Document doc = new Document();
+        doc.add(new StringField(TYPE, BOOK, Field.Store.NO));
+        doc.add(new StringField(KEY, BOOK + ":" + book.getId(), Field.Store.NO));
+        doc.add(new StoredField(ID, book.getId()));
+        doc.add(new TextField(NAME, Objects.toString(book.getName(), ""), Field.Store.NO));
+        doc.add(new TextField(DESCRIPTION, Objects.toString(book.getDescription(), ""), Field.Store.NO));
+        if (book.getAuthor() != null) {
+            doc.add(new TextField(AUTHOR, Objects.toString(book.getAuthor().getName(), ""), Field.Store.NO));
+        }
+        return doc;
+    }
+
+    private Document toDocument(Author author) {
+        Document doc = new Document();
+        doc.add(new StringField(TYPE, AUTHOR_TYPE, Field.Store.NO));
+        doc.add(new StringField(KEY, AUTHOR_TYPE + ":" + author.getId(), Field.Store.NO));
+        doc.add(new StoredField(ID, author.getId()));
+        doc.add(new TextField(NAME, Objects.toString(author.getName(), ""), Field.Store.NO));
+        return doc;
+    }
+
+    private void update(Term key, Document doc) {
+        try {
+            writer.updateDocument(key, doc);
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update catalog search index", e);
+        }
+    }
+
+    private void delete(Term key) {
+        try {
+            writer.deleteDocuments(key);
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update catalog search index", e);
+        }
+    }
+
+    private void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    private static Query boost(Query query, float boost) {
+        return new BoostQuery(query, boost);
+    }
+
+}
@@ -0,0 +1,93 @@
+package abubakar.bookapp.service;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Order;
+import abubakar.bookapp.models.RazorpayInfo;
+import abubakar.bookapp.repository.CartRepository;
+import abubakar.bookapp.repository.OrderRepository;
+import abubakar.bookapp.repository.RazorpayInfoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Single checkout path shared by cash and Razorpay orders:
+ * validate -> price -> reserve stock -> persist order -> record payment -> clear cart.
+ * Each stage is timed as "checkout.stage" with a "stage" tag.
+ */
+@Service
+public class CheckoutService {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RazorpayInfoRepository razorpayInfoRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Place an order; payment is null for cash orders
+    @Transactional
+    public Order checkout(Order order, RazorpayInfo payment) {
+
+        Map<Long, Book> books = stage("validate", () -> validate(order));
+
+        stage("price", () -> {
+            OrderPricing.price(order, books);
+            return null;
+        });
+
+        stage("reserve-stock", () -> {
+            stockReservationService.reserve(order.getItems(), books);
+            return null;
+        });
+
+        Order savedOrder = stage("persist-order", () -> orderRepository.save(order));
+
+        if (payment != null) {
+            stage("record-payment", () -> {
+                payment.setOrder(savedOrder);
+                return razorpayInfoRepository.save(payment);
+            });
+        }
+
+        stage("clear-cart", () -> {
+            if (savedOrder.getUser() != null) {
+                cartRepository.deleteByUserId(savedOrder.getUser().getId());
+            }
+            return null;
+        });
+
+        return savedOrder;
+    }
+
+    private Map<Long, Book> validate(Order order) {
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order must contain at least one item.");
+        }
+        return stockReservationService.loadBooks(order.getItems());
+    }
+
+    private <T> T stage(String name, Supplier<T> step) {
+        return Timer.builder("checkout.stage")
+                .tag("stage", name)
+                .register(meterRegistry)
+                .record(step);
+    }
+
+}
@@ -1,101 +1,192 @@
 package abubakar.bookapp.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import abubakar.bookapp.exception.FileStorageException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
-
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Stores uploads content-addressed: every image lands at
+ * /uploads/blobs/{aa}/{bb}/{sha256}.{ext}, so uploading the same bytes again
+ * (the same cover for several books, or an unchanged cover on every edit)
+ * only links to the file that is already there.
+ *
+ * Since one blob can back several books, authors, users and return requests,
+ * delete() leaves blobs alone; a scheduled sweep counts the references in the
+ * database and removes blobs nobody points at any more. Files from before the
+ * blob layout keep their names and are still deleted directly.
+ *
+ * An upload that finds its blob already on disk and the sweep deciding that
+ * same blob is stale hold the same lock, so a blob is never deleted between
+ * the dedupe check and the moment its owner points at it.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 12;
+
+    private static final String BLOB_DIR = "blobs";
+
+    private static final int IO_THREADS = 8;
+    private static final int IO_QUEUE_CAPACITY = 64;
+
+    private static final int BLOB_LOCK_STRIPES = 64;
+
+    // Every stored image URL, from all tables that hold one
+    private static final String REFERENCED_BLOBS_SQL =
+            "SELECT image_url FROM books WHERE image_url LIKE ? "
+            + "UNION SELECT image_url FROM authors WHERE image_url LIKE ? "
+            + "UNION SELECT image_url FROM users WHERE image_url LIKE ? "
+            + "UNION SELECT image_url FROM return_images WHERE image_url LIKE ?";
+
+    private static final byte[] JPEG_MAGIC = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+    private static final byte[] PNG_MAGIC = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] GIF_MAGIC = { 'G', 'I', 'F', '8' };
+    private static final byte[] RIFF_MAGIC = { 'R', 'I', 'F', 'F' };
+    private static final byte[] WEBP_MAGIC = { 'W', 'E', 'B', 'P' };
+
+    private static final int POOLED_BUFFERS = 32;
+
+    // Off-heap copy buffers shared by all uploads; not thread-local, a virtual thread per request would never reuse one
+    private static final ArrayBlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+
     private final String uploadDir = System.getProperty("user.dir") + "/uploads";
 
-    // Save a generic file and return its URL
-    public String save(MultipartFile file) {
-        ensureDirectoryExists(uploadDir);
+    // Saves and deletes the images of one request side by side; when busy, the caller does the work itself
+    private final ThreadPoolExecutor ioExecutor = new ThreadPoolExecutor(IO_THREADS, IO_THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(IO_QUEUE_CAPACITY),
+            new ThreadPoolExecutor.CallerRunsPolicy());
 
-        try {
-            String originalName = file.getOriginalFilename();
-            String extension = getExtension(originalName);
-            String uniqueFileName = UUID.randomUUID().toString() + extension;
+    // Striped by blob path; ReentrantLock rather than synchronized so a waiting virtual thread is not pinned
+    private final ReentrantLock[] blobLocks = Stream.generate(ReentrantLock::new)
+            .limit(BLOB_LOCK_STRIPES)
+            .toArray(ReentrantLock[]::new);
 
-            Path filePath = Paths.get(uploadDir, uniqueFileName);
-            Files.write(filePath, file.getBytes());
+    @Value("${file.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
 
-            return buildFileUrl("uploads/" + uniqueFileName);
+    // Blobs younger than this are never swept, their owner may not be saved yet
+    @Value("${file.blob-sweep-grace-ms:3600000}")
+    private long blobSweepGraceMs;
 
-        } catch (IOException ex) {
-            throw new FileStorageException("Failed to save file: " + file.getOriginalFilename(), ex);
-        }
-    }
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
-    // Save a profile image (organized by user ID)
-    public String saveProfileImage(MultipartFile file, Long userId) {
-        String profileDir = uploadDir + "/profile-images";
-        ensureDirectoryExists(profileDir);
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-        try {
-            String originalName = file.getOriginalFilename();
-            String extension = getExtension(originalName);
-            String uniqueFileName = "user-" + userId + "-" + UUID.randomUUID() + extension;
+    @Autowired
+    private UploadAssetService uploadAssetService;
 
-            Path filePath = Paths.get(profileDir, uniqueFileName);
-            Files.write(filePath, file.getBytes());
+    @Autowired
+    private ImageVariantService imageVariantService;
 
-            return buildFileUrl("uploads/profile-images/" + uniqueFileName);
+    // Save a generic file and return its URL
+    public String save(MultipartFile file) {
+        String relativePath = store(file, "Failed to save file: " + file.getOriginalFilename());
+        imageVariantService.generateAsync(relativePath);
 
-        } catch (IOException ex) {
-            throw new FileStorageException("Failed to save profile image for user ID " + userId, ex);
-        }
+        return buildFileUrl("uploads/" + relativePath);
     }
 
-    // Save return/replacement image (organized by userId, orderId, itemId)
-    public String saveReturnReplacementImage(MultipartFile file, Long userId, Long orderId, Long itemId) {
-        String rrDir = uploadDir + "/return-replacement-images";
-        ensureDirectoryExists(rrDir);
-
-        try {
-            String originalName = file.getOriginalFilename();
-            String extension = getExtension(originalName);
-            String uniqueFileName = String.format(
-                    "user-%d_order-%d_item-%d_%s%s",
-                    userId, orderId, itemId, UUID.randomUUID(), extension);
+    // Save a profile image
+    public String saveProfileImage(MultipartFile file, Long userId) {
+        String relativePath = store(file, "Failed to save profile image for user ID " + userId);
+        imageVariantService.generateAsync(relativePath);
 
-            Path filePath = Paths.get(rrDir, uniqueFileName);
-            Files.write(filePath, file.getBytes());
+        return buildFileUrl("uploads/" + relativePath);
+    }
 
-            return buildFileUrl("uploads/return-replacement-images/" + uniqueFileName);
+    /**
+     * Saves all images of one return/replacement request in parallel, in the
+     * given order. If one file is rejected or fails, that failure is rethrown;
+     * the blobs already stored are not referenced by anything and are left to
+     * the sweeper, since the same bytes may back another record.
+     */
+    public List<String> saveReturnReplacementImages(List<MultipartFile> files) {
+        if (files == null || files.isEmpty())
+            return List.of();
+
+        List<CompletableFuture<String>> uploads = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(
+                        () -> store(file, "Failed to save return/replacement image: " + file.getOriginalFilename()),
+                        ioExecutor))
+                .toList();
 
-        } catch (IOException ex) {
-            throw new FileStorageException("Failed to save return/replacement image", ex);
+        try {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex, "Failed to save return/replacement images");
         }
+
+        // URLs are built here, the request context only exists on this thread
+        return uploads.stream()
+                .map(upload -> buildFileUrl("uploads/" + upload.join()))
+                .toList();
     }
 
-    // Delete a single file (safe)
+    // Delete a single file (safe); shared blobs are left to the sweeper
     public void delete(String fileUrl) {
         if (fileUrl == null || fileUrl.isBlank())
             return;
 
         try {
-            String relativePath = fileUrl.contains("/uploads/")
-                    ? fileUrl.substring(fileUrl.lastIndexOf("/uploads/") + "/uploads/".length())
-                    : fileUrl;
+            String relativePath = relativePath(fileUrl);
+            if (relativePath.startsWith(BLOB_DIR + "/")) {
+                return;
+            }
 
             Path filePath = Paths.get(uploadDir, relativePath);
 
+            uploadAssetService.evict(relativePath);
+            imageVariantService.deleteVariants(relativePath);
+
             if (Files.exists(filePath)) {
                 Files.delete(filePath);
-                System.out.println("Deleted file: " + filePath);
+                log.debug("Deleted file: {}", filePath);
             }
 
         } catch (IOException ex) {
@@ -103,39 +194,257 @@ public class FileStorageService {
         }
     }
 
-    // Delete multiple return/replacement images
+    // Delete multiple return/replacement images in parallel
     public void deleteReturnReplacementImages(List<String> urls) {
         if (urls == null || urls.isEmpty())
             return;
 
-        for (String url : urls) {
-            if (url != null && !url.isBlank()) {
-                delete(url);
+        try {
+            CompletableFuture.allOf(urls.stream()
+                    .filter(url -> url != null && !url.isBlank())
+                    .map(url -> CompletableFuture.runAsync(() -> delete(url), ioExecutor))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex, "Failed to delete return/replacement images");
+        }
+    }
+
+    @PostConstruct
+    void bindMetrics() {
+        new ExecutorServiceMetrics(ioExecutor, "upload.io", List.of()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        ioExecutor.shutdown();
+    }
+
+    /**
+     * Removes blobs that no book, author, user or return request refers to,
+     * together with their variants, plus temp files left by failed uploads.
+     */
+    @Scheduled(fixedDelayString = "${file.blob-sweep-interval-ms:3600000}")
+    public void sweepUnreferencedBlobs() {
+        Path blobRoot = Paths.get(uploadDir, BLOB_DIR);
+        if (!Files.isDirectory(blobRoot)) {
+            return;
+        }
+
+        String pattern = "%/uploads/" + BLOB_DIR + "/%";
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query(REFERENCED_BLOBS_SQL,
+                rs -> {
+                    referenced.add(relativePath(rs.getString(1)));
+                },
+                pattern, pattern, pattern, pattern);
+
+        long cutoff = System.currentTimeMillis() - blobSweepGraceMs;
+        int removed = 0;
+
+        try (Stream<Path> files = Files.walk(blobRoot)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String relativePath = Paths.get(uploadDir).relativize(file).toString().replace(File.separatorChar, '/');
+                if (referenced.contains(relativePath) || lastModified(file) > cutoff) {
+                    continue;
+                }
+
+                ReentrantLock lock = blobLock(relativePath);
+                lock.lock();
+                try {
+                    // An upload of the same bytes may have touched it since the walk read its time
+                    if (lastModified(file) > cutoff) {
+                        continue;
+                    }
+                    uploadAssetService.evict(relativePath);
+                    imageVariantService.deleteVariants(relativePath);
+                    if (Files.deleteIfExists(file)) {
+                        removed++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
             }
+        } catch (IOException ex) {
+            log.warn("Blob sweep failed: {}", ex.toString());
+        }
+
+        if (removed > 0) {
+            log.info("Removed {} unreferenced upload(s)", removed);
         }
     }
 
-    // Edit multiple images safely
-    public List<String> editReturnReplacementImages(
-            Long userId, Long orderId, Long itemId,
-            List<String> oldUrls, List<MultipartFile> newFiles) {
+    /**
+     * Streams an upload to a temp file through a reused direct buffer while
+     * hashing it, then atomically renames it to its SHA-256 plus the extension
+     * of the detected image type. If that blob exists already the copy is
+     * dropped. Heap use does not depend on the file size, and readers never
+     * see a half-written file.
+     *
+     * Returns the path below /uploads/.
+     */
+    private String store(MultipartFile file, String errorMessage) {
+        if (file.getSize() > maxUploadBytes) {
+            throw tooLarge();
+        }
+        String dir = uploadDir + "/" + BLOB_DIR;
+        ensureDirectoryExists(dir);
 
-        try {
-            // Delete old images first
-            deleteReturnReplacementImages(oldUrls);
-
-            // Save new images
-            List<String> result = new ArrayList<>();
-            if (newFiles != null && !newFiles.isEmpty()) {
-                for (MultipartFile file : newFiles) {
-                    String url = saveReturnReplacementImage(file, userId, orderId, itemId);
-                    result.add(url);
+        Path temp = null;
+        ByteBuffer buffer = acquireBuffer();
+        try (ReadableByteChannel in = Channels.newChannel(file.getInputStream())) {
+
+            // Read until the magic bytes are in, or the upload ends
+            while (buffer.position() < MAGIC_LENGTH && in.read(buffer) >= 0) {
+                // keep filling
+            }
+            buffer.flip();
+
+            String extension = detectImageExtension(buffer);
+            if (extension == null) {
+                throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Only JPEG, PNG, GIF and WebP images are allowed");
+            }
+
+            MessageDigest digest = sha256();
+            temp = Files.createTempFile(Paths.get(dir), ".upload-", ".tmp");
+            long written = 0;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (true) {
+                    // Count what was actually sent, the declared size can be wrong
+                    written += buffer.remaining();
+                    if (written > maxUploadBytes) {
+                        throw tooLarge();
+                    }
+                    buffer.mark();
+                    digest.update(buffer);
+                    buffer.reset();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                    if (in.read(buffer) < 0) {
+                        break;
+                    }
+                    buffer.flip();
                 }
             }
-            return result;
 
-        } catch (Exception ex) {
-            throw new FileStorageException("Failed to update return/replacement images", ex);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String relativePath = BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/"
+                    + hash + extension;
+            Path target = Paths.get(uploadDir, relativePath);
+
+            ReentrantLock lock = blobLock(relativePath);
+            lock.lock();
+            try {
+                if (Files.exists(target)) {
+                    // Same bytes again; restart the sweep grace period so the blob survives until its owner is saved
+                    Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                    uploadAssetService.evict(relativePath);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return relativePath;
+
+        } catch (IOException ex) {
+            throw new FileStorageException(errorMessage, ex);
+        } finally {
+            releaseBuffer(buffer);
+            deleteQuietly(temp);
+        }
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = BUFFERS.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    // Back into the pool; beyond its capacity the buffer is left to the GC
+    private static void releaseBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        BUFFERS.offer(buffer);
+    }
+
+    // File extension for the image type given by the leading bytes, or null if not an accepted image
+    private static String detectImageExtension(ByteBuffer head) {
+        if (startsWith(head, 0, JPEG_MAGIC)) {
+            return ".jpg";
+        }
+        if (startsWith(head, 0, PNG_MAGIC)) {
+            return ".png";
+        }
+        if (startsWith(head, 0, GIF_MAGIC)) {
+            return ".gif";
+        }
+        if (startsWith(head, 0, RIFF_MAGIC) && startsWith(head, 8, WEBP_MAGIC)) {
+            return ".webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, byte[] magic) {
+        if (buffer.limit() < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (buffer.get(offset + i) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The failure of a parallel task as thrown by the task itself
+    private static RuntimeException unwrap(CompletionException ex, String message) {
+        return ex.getCause() instanceof RuntimeException cause ? cause : new FileStorageException(message, ex.getCause());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    // Path below /uploads/ of a stored URL
+    private static String relativePath(String fileUrl) {
+        return fileUrl.contains("/uploads/")
+                ? fileUrl.substring(fileUrl.lastIndexOf("/uploads/") + "/uploads/".length())
+                : fileUrl;
+    }
+
+    private ReentrantLock blobLock(String relativePath) {
+        return blobLocks[Math.floorMod(relativePath.hashCode(), BLOB_LOCK_STRIPES)];
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ex) {
+            return Long.MAX_VALUE; // vanished or unreadable, leave it
+        }
+    }
+
+    private ResponseStatusException tooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "File exceeds the upload limit of " + maxUploadBytes + " bytes");
+    }
+
+    // Remove a leftover temp file; it is already gone after a successful move
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // best effort, the temp name is never served
         }
     }
 
@@ -147,13 +456,6 @@ public class FileStorageService {
         }
     }
 
-    // Extract file extension safely
-    private String getExtension(String filename) {
-        if (filename == null || !filename.contains("."))
-            return "";
-        return filename.substring(filename.lastIndexOf("."));
-    }
-
     // Build accessible file URL
     private String buildFileUrl(String relativePath) {
         return ServletUriComponentsBuilder.fromCurrentContextPath()
@@ -0,0 +1,282 @@
+package abubakar.bookapp.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Downscaled copies of uploaded images in fixed width buckets, stored under
+ * /uploads/variants/{width}/ and served through ImageController's ?w= parameter.
+ *
+ * Variants are rendered in the background right after an upload, on a small
+ * bounded pool that drops work when it is full. Anything missing is rendered
+ * on first request instead. Images that are already narrower than a bucket,
+ * or that ImageIO cannot decode (WebP), are served as the original.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final int[] WIDTHS = { 160, 320, 640 };
+
+    private static final String VARIANT_DIR = "variants";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 200;
+    private static final int MAX_RESOLVED = 10_000;
+
+    private final UploadAssetService uploadAssetService;
+
+    // Upload path and width -> path actually served, so repeat requests skip the file system
+    private final Cache<String, String> resolved = Caffeine.newBuilder()
+            .maximumSize(MAX_RESOLVED)
+            .expireAfterWrite(Duration.ofHours(1))
+            .recordStats()
+            .build();
+
+    // One render per variant at a time; other requests for it wait for the same result
+    private final Map<String, CompletableFuture<String>> rendering = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKERS, WORKERS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    public ImageVariantService(UploadAssetService uploadAssetService, MeterRegistry meterRegistry) {
+        this.uploadAssetService = uploadAssetService;
+        // Tagged like UploadAssetService.assets
+        CaffeineCacheMetrics.monitor(meterRegistry, resolved, "uploads.variants",
+                Tags.of("cache.manager", "uploads", "name", "uploads.variants"));
+        new ExecutorServiceMetrics(executor, "image.variants", List.of()).bindTo(meterRegistry);
+    }
+
+    // Render every bucket of a fresh upload in the background
+    public void generateAsync(String relativePath) {
+        executor.execute(() -> {
+            for (int width : WIDTHS) {
+                try {
+                    variant(relativePath, width);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to render {}px variant of {}", width, relativePath, e);
+                }
+            }
+        });
+    }
+
+    // Path to serve for a requested width: the smallest bucket that is wide enough, or the original
+    public String resolve(String relativePath, int requestedWidth) {
+        // A variant is served as it is; scaling it again would write variants/../variants/.. files
+        // that neither deleteVariants nor the blob sweep ever remove
+        if (relativePath.startsWith(VARIANT_DIR + "/")) {
+            return relativePath;
+        }
+        for (int width : WIDTHS) {
+            if (requestedWidth <= width) {
+                return variant(relativePath, width);
+            }
+        }
+        return relativePath;
+    }
+
+    public void deleteVariants(String relativePath) {
+        for (int width : WIDTHS) {
+            String variantPath = variantPath(relativePath, width);
+            resolved.invalidate(key(relativePath, width));
+            uploadAssetService.evict(variantPath);
+
+            Path file = uploadAssetService.resolve(variantPath);
+            try {
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete variant {}: {}", file, e.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private String variant(String relativePath, int width) {
+        String key = key(relativePath, width);
+        String cached = resolved.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = rendering.putIfAbsent(key, mine);
+        if (running != null) {
+            return running.join();
+        }
+
+        try {
+            String served = render(relativePath, width);
+            resolved.put(key, served);
+            mine.complete(served);
+            return served;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key);
+        }
+    }
+
+    // Write the variant unless it exists already; returns the path to serve
+    private String render(String relativePath, int width) {
+        String variantPath = variantPath(relativePath, width);
+        Path source = uploadAssetService.resolve(relativePath);
+        Path target = uploadAssetService.resolve(variantPath);
+        if (source == null || target == null || !Files.isRegularFile(source)) {
+            return relativePath;
+        }
+        if (Files.isRegularFile(target)) {
+            return variantPath;
+        }
+
+        try {
+            BufferedImage scaled = decodeScaled(source, width);
+            if (scaled == null) {
+                return relativePath; // not decodable, or already small enough
+            }
+
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+            try {
+                if (variantPath.endsWith(".jpg")) {
+                    writeJpeg(scaled, temp);
+                } else {
+                    ImageIO.write(scaled, "png", temp.toFile());
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return variantPath;
+
+        } catch (IOException e) {
+            log.warn("Failed to render {}: {}", variantPath, e.toString());
+            return relativePath;
+        }
+    }
+
+    /**
+     * Decodes the source at a reduced resolution (subsampling keeps at least
+     * twice the target width), then halves it until one smooth step is left.
+     * Returns null if the image cannot be decoded or is not wider than width.
+     */
+    private static BufferedImage decodeScaled(Path source, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                if (sourceWidth <= width) {
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                boolean alpha = image.getColorModel().hasAlpha();
+                while (image.getWidth() / 2 >= width) {
+                    image = scale(image, image.getWidth() / 2, alpha);
+                }
+                return scale(image, width, alpha);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, boolean alpha) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // JPEG sources become JPEG variants; everything else becomes PNG to keep transparency
+    private static String variantPath(String relativePath, int width) {
+        int dot = relativePath.lastIndexOf('.');
+        String base = dot > relativePath.lastIndexOf('/') ? relativePath.substring(0, dot) : relativePath;
+        String extension = dot > relativePath.lastIndexOf('/') ? relativePath.substring(dot).toLowerCase() : "";
+        boolean jpeg = extension.equals(".jpg") || extension.equals(".jpeg");
+        return VARIANT_DIR + "/" + width + "/" + base + (jpeg ? ".jpg" : ".png");
+    }
+
+    private static String key(String relativePath, int width) {
+        return width + ":" + relativePath;
+    }
+
+}
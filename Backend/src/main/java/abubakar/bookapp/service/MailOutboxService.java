@@ -0,0 +1,188 @@
+package abubakar.bookapp.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import abubakar.bookapp.models.MailOutbox;
+import abubakar.bookapp.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Mail outbox. Callers queue a mail inside their own transaction and return
+ * immediately; a scheduled worker sends due mails in batches, one SMTP
+ * connection per batch, retries failures with exponential backoff and marks
+ * a mail DEAD once it runs out of attempts.
+ *
+ * Each mail is claimed (PENDING -> IN_FLIGHT) before it joins a batch, so
+ * two instances, or a slow batch overlapping a restart, never both send it.
+ * A claim older than mail.outbox.claim-timeout-ms is taken to belong to a
+ * worker that died and goes back to the queue.
+ *
+ * Metrics: mail.outbox.pending and mail.outbox.dead (queue depth),
+ * mail.outbox.batch (SMTP time per batch), mail.outbox.delivery (queued to
+ * sent) and mail.outbox.attempts by outcome.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxService.class);
+
+    private static final long MAX_BACKOFF_MS = 60 * 60 * 1000L;
+
+    // JavaMail waits forever by default, and the scheduler thread with it
+    private static final String SMTP_TIMEOUT_MS = "10000";
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-ms:10000}")
+    private long backoffMs;
+
+    @Value("${mail.outbox.claim-timeout-ms:900000}")
+    private long claimTimeoutMs;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get)
+                .description("Mails waiting to be sent")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.dead", dead, AtomicLong::get)
+                .description("Mails given up after the last attempt")
+                .register(meterRegistry);
+
+        if (mailSender instanceof JavaMailSenderImpl impl) {
+            impl.getJavaMailProperties().putIfAbsent("mail.smtp.connectiontimeout", SMTP_TIMEOUT_MS);
+            impl.getJavaMailProperties().putIfAbsent("mail.smtp.timeout", SMTP_TIMEOUT_MS);
+            impl.getJavaMailProperties().putIfAbsent("mail.smtp.writetimeout", SMTP_TIMEOUT_MS);
+        }
+    }
+
+    // Queue a mail; it is sent once the caller's transaction has committed
+    @Transactional
+    public MailOutbox enqueue(String recipient, String subject, String body) {
+        MailOutbox mail = new MailOutbox();
+        mail.setRecipient(recipient);
+        mail.setSubject(subject);
+        mail.setBody(body);
+        return mailOutboxRepository.save(mail);
+    }
+
+    // Send due mails; the SMTP conversation runs outside any DB transaction
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void dispatchPendingMails() {
+        LocalDateTime now = LocalDateTime.now();
+        mailOutboxRepository.releaseStaleClaims(now.minusNanos(claimTimeoutMs * 1_000_000L));
+
+        List<MailOutbox> batch = mailOutboxRepository
+                .findTop50ByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc("PENDING", now).stream()
+                .filter(mail -> mailOutboxRepository.claim(mail.getId(), LocalDateTime.now()) == 1)
+                .toList();
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+
+        pending.set(mailOutboxRepository.countByStatus("PENDING"));
+        dead.set(mailOutboxRepository.countByStatus("DEAD"));
+    }
+
+    private void send(List<MailOutbox> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                .map(MailOutboxService::toMessage)
+                .toArray(SimpleMailMessage[]::new);
+
+        // Failed messages by message; the sender carries on with the rest of the batch after one fails
+        Map<Object, Exception> failures = Map.of();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(messages, e); // could not connect or log in
+        } finally {
+            sample.stop(meterRegistry.timer("mail.outbox.batch"));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            MailOutbox mail = batch.get(i);
+            mail.setAttempts(mail.getAttempts() + 1);
+
+            Exception error = failures.get(messages[i]);
+            if (error == null) {
+                mail.setStatus("SENT");
+                mail.setSentAt(now);
+                mail.setLastError(null);
+                meterRegistry.timer("mail.outbox.delivery").record(Duration.between(mail.getCreatedAt(), now));
+                meterRegistry.counter("mail.outbox.attempts", "outcome", "sent").increment();
+                continue;
+            }
+
+            String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+            mail.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+
+            if (mail.getAttempts() >= maxAttempts) {
+                mail.setStatus("DEAD");
+                meterRegistry.counter("mail.outbox.attempts", "outcome", "dead").increment();
+                // Neither the address nor the SMTP reply (which usually repeats it) goes to the log; see last_error
+                log.warn("Giving up on mail {} after {} attempts", mail.getId(), mail.getAttempts());
+            } else {
+                long delay = Math.min(backoffMs << Math.min(mail.getAttempts() - 1, 20), MAX_BACKOFF_MS);
+                mail.setStatus("PENDING");
+                mail.setNextAttemptAt(now.plusNanos(delay * 1_000_000L));
+                meterRegistry.counter("mail.outbox.attempts", "outcome", "retry").increment();
+            }
+        }
+
+        mailOutboxRepository.saveAll(batch);
+    }
+
+    private static SimpleMailMessage toMessage(MailOutbox mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception error) {
+        Map<Object, Exception> failures = new HashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, error);
+        }
+        return failures;
+    }
+
+}
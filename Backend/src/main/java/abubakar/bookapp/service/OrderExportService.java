@@ -0,0 +1,209 @@
+package abubakar.bookapp.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import abubakar.bookapp.payload.OrderExportRowDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Writes every order straight from a forward-only result stream to the
+ * response, so memory stays flat however many orders there are.
+ *
+ * NDJSON has one line per order with its items nested; CSV has one line per
+ * order item with the order columns repeated.
+ */
+@Service
+public class OrderExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    // Every order line in order id order, as flat rows
+    private static final String EXPORT_ROWS_JPQL = "SELECT new abubakar.bookapp.payload.OrderExportRowDTO("
+            + "o.id, o.user.id, o.userName, o.orderMode, o.orderStatus, o.createdAt, o.deliveryDate, "
+            + "o.address, o.phoneNumber, o.subtotal, o.gst, o.total, "
+            + "i.id, i.bookId, i.bookName, i.authorName, i.quantity, i.returnedQuantity, i.replacedQuantity, "
+            + "i.unitPrice, i.subtotal) "
+            + "FROM Order o LEFT JOIN o.items i "
+            + "ORDER BY o.id, i.id";
+
+    private static final String[] CSV_HEADER = {
+            "orderId", "userId", "userName", "orderMode", "orderStatus", "createdAt", "deliveryDate",
+            "address", "phoneNumber", "subtotal", "gst", "total",
+            "itemId", "bookId", "bookName", "authorName", "quantity", "returnedQuantity", "replacedQuantity",
+            "unitPrice", "itemSubtotal" };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering them; other drivers need a
+    // positive size. A property rather than a repository @QueryHint, which cannot vary by database.
+    @Value("${order.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+
+    // Stream all orders in the given format
+    @Transactional(readOnly = true)
+    public void export(String format, OutputStream out) throws IOException {
+        try (Stream<OrderExportRowDTO> rows = streamRows()) {
+            if (CSV.equals(format)) {
+                writeCsv(rows, out);
+            } else {
+                writeNdjson(rows, out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private Stream<OrderExportRowDTO> streamRows() {
+        return entityManager.createQuery(EXPORT_ROWS_JPQL, OrderExportRowDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+
+    private void writeNdjson(Stream<OrderExportRowDTO> rows, OutputStream out) throws IOException {
+        JsonGenerator json = mapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null); // the default " " would start every line after the first
+
+        // Rows arrive sorted by order id, so an order is finished when the id changes
+        Long[] currentOrder = { null };
+        long[] written = { 0 };
+        rows.forEach(row -> {
+            try {
+                if (!row.getOrderId().equals(currentOrder[0])) {
+                    if (currentOrder[0] != null) {
+                        endOrder(json);
+                    }
+                    startOrder(json, row);
+                    currentOrder[0] = row.getOrderId();
+                }
+                if (row.getItemId() != null) {
+                    writeItem(json, row);
+                }
+                // First order goes out right away, then in batches
+                if (++written[0] == 1 || written[0] % FLUSH_EVERY_ROWS == 0) {
+                    json.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (currentOrder[0] != null) {
+            endOrder(json);
+        }
+        json.close();
+    }
+
+    private void startOrder(JsonGenerator json, OrderExportRowDTO row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.getOrderId());
+        json.writeNumberField("userId", row.getUserId());
+        json.writeStringField("userName", row.getUserName());
+        json.writeStringField("orderMode", row.getOrderMode());
+        json.writeStringField("orderStatus", row.getOrderStatus());
+        json.writeStringField("createdAt", Objects.toString(row.getCreatedAt(), null));
+        json.writeStringField("deliveryDate", Objects.toString(row.getDeliveryDate(), null));
+        json.writeStringField("address", row.getAddress());
+        json.writeStringField("phoneNumber", row.getPhoneNumber());
+        json.writeNumberField("subtotal", row.getSubtotal());
+        json.writeNumberField("gst", row.getGst());
+        json.writeNumberField("total", row.getTotal());
+        json.writeArrayFieldStart("items");
+    }
+
+    private void writeItem(JsonGenerator json, OrderExportRowDTO row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.getItemId());
+        json.writeNumberField("bookId", row.getBookId());
+        json.writeStringField("bookName", row.getBookName());
+        json.writeStringField("authorName", row.getAuthorName());
+        json.writeNumberField("quantity", row.getQuantity());
+        json.writeNumberField("returnedQuantity", row.getReturnedQuantity());
+        json.writeNumberField("replacedQuantity", row.getReplacedQuantity());
+        json.writeNumberField("unitPrice", row.getUnitPrice());
+        json.writeNumberField("subtotal", row.getItemSubtotal());
+        json.writeEndObject();
+    }
+
+    private void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeCsv(Stream<OrderExportRowDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, (Object[]) CSV_HEADER);
+        writer.flush();
+
+        long[] written = { 0 };
+        rows.forEach(row -> {
+            try {
+                writeCsvLine(writer,
+                        row.getOrderId(), row.getUserId(), row.getUserName(), row.getOrderMode(),
+                        row.getOrderStatus(), row.getCreatedAt(), row.getDeliveryDate(), row.getAddress(),
+                        row.getPhoneNumber(), row.getSubtotal(), row.getGst(), row.getTotal(),
+                        row.getItemId(), row.getBookId(), row.getBookName(), row.getAuthorName(),
+                        row.getQuantity(), row.getReturnedQuantity(), row.getReplacedQuantity(),
+                        row.getUnitPrice(), row.getItemSubtotal());
+                if (++written[0] % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // Quote fields with separators, quotes or line breaks (RFC 4180)
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+}
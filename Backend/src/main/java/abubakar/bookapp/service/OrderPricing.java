@@ -0,0 +1,80 @@
+package abubakar.bookapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Order;
+import abubakar.bookapp.models.OrderItem;
+
+/**
+ * Order money calculations. All arithmetic is done in BigDecimal rounded to
+ * paise, and converted to the entity float fields only once at the end.
+ */
+public final class OrderPricing {
+
+    public static final BigDecimal GST_RATE = new BigDecimal("0.05");
+
+    private OrderPricing() {
+    }
+
+    // Price every item from the catalog and set the order totals
+    public static void price(Order order, Map<Long, Book> books) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+
+        for (OrderItem item : order.getItems()) {
+            Book book = books.get(item.getBookId());
+
+            BigDecimal unitPrice = toPaise(book.getPrice());
+            BigDecimal itemSubtotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+
+            item.setBookName(book.getName());
+            item.setAuthorName(book.getAuthor() != null ? book.getAuthor().getName() : "Unknown");
+            item.setUnitPrice(unitPrice.floatValue());
+            item.setSubtotal(itemSubtotal.floatValue());
+            item.setOrder(order);
+
+            subtotal = subtotal.add(itemSubtotal);
+        }
+
+        applyTotals(order, subtotal);
+    }
+
+    // Recalculate order totals from the current item subtotals (item removal, returns)
+    public static void recalculateTotals(Order order) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            subtotal = subtotal.add(toPaise(item.getSubtotal()));
+        }
+        applyTotals(order, subtotal);
+    }
+
+    // Billable subtotal of an item after returns and replacements
+    public static BigDecimal effectiveSubtotal(OrderItem item) {
+        int effectiveQty = item.getQuantity() - item.getReturnedQuantity() - item.getReplacedQuantity();
+        return toPaise(item.getUnitPrice()).multiply(BigDecimal.valueOf(Math.max(effectiveQty, 0)));
+    }
+
+    // Amount in paise, as sent to Razorpay
+    public static long toPaiseAmount(double amountInINR) {
+        return toPaise(amountInINR).movePointRight(2).longValueExact();
+    }
+
+    private static void applyTotals(Order order, BigDecimal subtotal) {
+        BigDecimal gst = toPaise(subtotal.multiply(GST_RATE));
+
+        order.setSubtotal(subtotal.floatValue());
+        order.setGst(gst.floatValue());
+        order.setTotal(subtotal.add(gst).floatValue());
+    }
+
+    private static BigDecimal toPaise(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal toPaise(double amount) {
+        return toPaise(new BigDecimal(Double.toString(amount)));
+    }
+
+}
@@ -0,0 +1,97 @@
+package abubakar.bookapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import abubakar.bookapp.models.Order;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps sales_hourly_rollup in step with every order insert, update and
+ * delete, so placement, cancellation, item removal and return/refund
+ * adjustments are all counted without each call site having to remember.
+ *
+ * Writes go through JdbcTemplate on the transaction's connection rather than
+ * the EntityManager, because these callbacks run in the middle of a flush.
+ */
+@Component
+public class OrderRollupListener {
+
+    private static final String UPSERT_SQL = "INSERT INTO sales_hourly_rollup (bucket_start, order_count, sales_total) "
+            + "VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+            + "sales_total = sales_total + VALUES(sales_total)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostLoad
+    public void loaded(Order order) {
+        remember(order);
+    }
+
+    @PostPersist
+    public void persisted(Order order) {
+        record(order.getCreatedAt(), null, null, order.getOrderStatus(), order.getTotal());
+        remember(order);
+    }
+
+    @PostUpdate
+    public void updated(Order order) {
+        record(order.getCreatedAt(), order.getRolledUpStatus(), order.getRolledUpTotal(),
+                order.getOrderStatus(), order.getTotal());
+        remember(order);
+    }
+
+    @PostRemove
+    public void removed(Order order) {
+        record(order.getCreatedAt(), order.getRolledUpStatus(), order.getRolledUpTotal(), null, null);
+    }
+
+    // Add to the counters of the hour the time falls in
+    public void add(LocalDateTime time, long orderCount, BigDecimal salesTotal) {
+        jdbcTemplate.update(UPSERT_SQL, time.truncatedTo(ChronoUnit.HOURS), orderCount, salesTotal);
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private void record(LocalDateTime createdAt, String oldStatus, Float oldTotal, String newStatus, Float newTotal) {
+        if (createdAt == null) {
+            return;
+        }
+
+        long countDelta = (counts(newStatus) ? 1 : 0) - (counts(oldStatus) ? 1 : 0);
+        BigDecimal salesDelta = amount(newStatus, newTotal).subtract(amount(oldStatus, oldTotal));
+
+        if (countDelta != 0 || salesDelta.signum() != 0) {
+            add(createdAt, countDelta, salesDelta);
+        }
+    }
+
+    private static void remember(Order order) {
+        order.setRolledUpStatus(order.getOrderStatus());
+        order.setRolledUpTotal(order.getTotal());
+    }
+
+    // Cancelled orders are left out of the stats
+    private static boolean counts(String status) {
+        return status != null && !"Cancelled".equalsIgnoreCase(status);
+    }
+
+    private static BigDecimal amount(String status, Float total) {
+        if (!counts(status) || total == null) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_UP);
+    }
+
+}
@@ -1,30 +1,34 @@
 package abubakar.bookapp.service;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import abubakar.bookapp.models.Book;
 import abubakar.bookapp.models.Order;
 import abubakar.bookapp.models.OrderItem;
 import abubakar.bookapp.models.RazorpayInfo;
-import abubakar.bookapp.models.Review;
+import abubakar.bookapp.payload.CursorSliceDTO;
+import abubakar.bookapp.payload.OrderHistoryDTO;
+import abubakar.bookapp.payload.OrderHistoryItemDTO;
 import abubakar.bookapp.payload.OrderRangeStatsDTO;
 import abubakar.bookapp.payload.OrderStatsDTO;
 import abubakar.bookapp.payload.OrderUpdateDTO;
 import abubakar.bookapp.repository.BookRepository;
-import abubakar.bookapp.repository.CartRepository;
+import abubakar.bookapp.repository.OrderItemRepository;
 import abubakar.bookapp.repository.OrderRepository;
 import abubakar.bookapp.repository.RazorpayInfoRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
@@ -33,86 +37,59 @@ public class OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private BookRepository bookRepository;
+    private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private CartRepository cartRepository;
+    private BookRepository bookRepository;
 
     @Autowired
     private RazorpayInfoRepository razorpayInfoRepository;
 
     @Autowired
-    private PaymentService paymentService;
-
-    // Place a new order
-    public Order placeOrder(Order order) {
-        if (order.getItems() == null || order.getItems().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order must contain at least one item.");
-        }
-
-        float subtotal = 0f;
-
-        for (OrderItem item : order.getItems()) {
-            Book book = bookRepository.findById(item.getBookId())
-                    .orElseThrow(() -> new ResponseStatusException(
-                            HttpStatus.NOT_FOUND,
-                            "Book not found with ID: " + item.getBookId()));
-
-            int newQuantity = book.getQuantity() - item.getQuantity();
-            if (newQuantity < 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                        "Insufficient stock for book: " + book.getName());
-            }
-
-            book.setQuantity(newQuantity);
-            bookRepository.save(book);
-
-            item.setBookName(book.getName());
-            item.setUnitPrice(book.getPrice().floatValue());
-
-            float itemSubtotal = book.getPrice()
-                    .multiply(BigDecimal.valueOf(item.getQuantity()))
-                    .floatValue();
-
-            item.setSubtotal(itemSubtotal);
-            item.setAuthorName(book.getAuthor() != null ? book.getAuthor().getName() : "Unknown");
-            item.setOrder(order);
-
-            subtotal += itemSubtotal;
-        }
+    private RefundService refundService;
 
-        float gst = subtotal * 0.05f;
-        float grandTotal = subtotal + gst;
+    @Autowired
+    private CheckoutService checkoutService;
 
-        order.setSubtotal(subtotal);
-        order.setGst(gst);
-        order.setTotal(grandTotal);
+    @Autowired
+    private SalesRollupService salesRollupService;
 
-        if (order.getUser() != null) {
-            cartRepository.deleteByUserId(order.getUser().getId());
-        }
+    @Autowired
+    private ReviewService reviewService;
 
-        return orderRepository.save(order);
+    // Place a new order
+    public Order placeOrder(Order order) {
+        return checkoutService.checkout(order, null);
     }
 
-    // Get all orders for a user
-    public List<Order> getOrdersByUserId(Long userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
+    // Get a user's orders older than the cursor, newest first: one query for the orders, one for their items
+    @Transactional(readOnly = true)
+    public Slice<OrderHistoryDTO> getOrderHistory(Long userId, Long after, int limit) {
+        Slice<OrderHistoryDTO> orders = orderRepository.findHistoryByUserIdAndIdLessThan(
+                userId, CursorSliceDTO.seekFrom(after), CursorSliceDTO.limit(limit));
         if (orders.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No orders found.");
+            return orders;
         }
+
+        Map<Long, List<OrderHistoryItemDTO>> items = orderItemRepository
+                .findHistoryItems(orders.getContent().stream().map(OrderHistoryDTO::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderHistoryItemDTO::getOrderId));
+        orders.forEach(order -> order.setItems(items.getOrDefault(order.getId(), new ArrayList<>())));
         return orders;
     }
 
-    // Get all orders (Admin)
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    // Get orders older than the cursor, newest first (Admin)
+    public Slice<Order> getOrdersBefore(Long after, int limit) {
+        return orderRepository.findByIdLessThanOrderByIdDesc(
+                CursorSliceDTO.seekFrom(after), CursorSliceDTO.limit(limit));
     }
 
     // Update only order status (Admin)
+    @Transactional
     public String updateOrderStatus(Long orderId, String orderStatus) {
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Order not found with ID: " + orderId));
@@ -134,34 +111,16 @@ public class OrderService {
 
             if ("UPI".equalsIgnoreCase(order.getOrderMode()) && info != null) {
 
-                try {
-
-                    double refunded = info.getRefundedAmount() == null ? 0.0 : info.getRefundedAmount();
-                    double remainingRefund = order.getTotal() - refunded;
-
-                    if (remainingRefund > 0) {
-
-                        paymentService.refundPayment(info.getRazorpayPaymentId(), remainingRefund);
-
-                        refunded += remainingRefund;
-
-                        info.setRefundedAmount(refunded);
-
-                        if (refunded >= order.getTotal()) {
-                            info.setFullyRefunded(true);
-                        }
+                double remainingRefund = refundService.remainingRefundable(info, order.getTotal());
 
-                        razorpayInfoRepository.save(info);
-
-                        message = "Order cancelled and refund processed successfully.";
+                if (remainingRefund > 0) {
 
-                    } else {
-                        message = "Order cancelled successfully. Refund already completed.";
-                    }
+                    refundService.enqueue(info, orderId, remainingRefund);
 
-                } catch (Exception e) {
+                    message = "Order cancelled and refund initiated successfully.";
 
-                    message = "Order cancelled but refund failed: " + e.getMessage();
+                } else {
+                    message = "Order cancelled successfully. Refund already completed.";
                 }
 
             } else {
@@ -182,7 +141,7 @@ public class OrderService {
 
     // Edit order by ID
     public Order editOrderById(Long orderId, OrderUpdateDTO dto) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findDetailById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Order not found with ID: " + orderId));
 
@@ -207,7 +166,7 @@ public class OrderService {
     @Transactional
     public String removeOrder(Long orderId) {
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Order not found with ID: " + orderId));
 
@@ -222,34 +181,14 @@ public class OrderService {
 
         if ("UPI".equalsIgnoreCase(order.getOrderMode()) && info != null) {
 
-            try {
-
-                double refunded = info.getRefundedAmount() == null ? 0.0 : info.getRefundedAmount();
-                double remainingRefund = order.getTotal() - refunded;
-
-                if (remainingRefund > 0) {
-
-                    paymentService.refundPayment(info.getRazorpayPaymentId(), remainingRefund);
-
-                    refunded += remainingRefund;
-
-                    info.setRefundedAmount(refunded);
+            double remainingRefund = refundService.remainingRefundable(info, order.getTotal());
 
-                    if (refunded >= order.getTotal()) {
-                        info.setFullyRefunded(true);
-                    }
-
-                    razorpayInfoRepository.save(info);
-                }
-
-                message = "Your order has been cancelled and refund processed successfully.";
-
-            } catch (Exception e) {
-
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
-                        "Refund failed: " + e.getMessage(), e);
+            if (remainingRefund > 0) {
+                refundService.enqueue(info, orderId, remainingRefund);
             }
 
+            message = "Your order has been cancelled and refund initiated successfully.";
+
         } else {
 
             message = "Your order has been cancelled successfully.";
@@ -283,7 +222,7 @@ public class OrderService {
     @Transactional
     public String removeOrderItem(Long orderId, Long bookId) {
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found."));
 
         if ("Delivered".equalsIgnoreCase(order.getOrderStatus()) ||
@@ -304,36 +243,15 @@ public class OrderService {
 
         if ("UPI".equalsIgnoreCase(order.getOrderMode()) && info != null) {
 
-            try {
-
-                double refunded = info.getRefundedAmount() == null ? 0.0 : info.getRefundedAmount();
-                double remainingRefund = order.getTotal() - refunded;
-
-                double refundAmount = itemToRemove.getSubtotal();
+            double remainingRefund = refundService.remainingRefundable(info, order.getTotal());
 
-                refundAmount = Math.min(refundAmount, remainingRefund);
+            double refundAmount = Math.min(itemToRemove.getSubtotal(), remainingRefund);
 
-                if (refundAmount > 0) {
+            if (refundAmount > 0) {
 
-                    paymentService.refundPayment(info.getRazorpayPaymentId(), refundAmount);
+                refundService.enqueue(info, orderId, refundAmount);
 
-                    refunded += refundAmount;
-
-                    info.setRefundedAmount(refunded);
-
-                    if (refunded >= order.getTotal()) {
-                        info.setFullyRefunded(true);
-                    }
-
-                    razorpayInfoRepository.save(info);
-
-                    refundProcessed = true;
-                }
-
-            } catch (Exception e) {
-
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
-                        "Refund failed: " + e.getMessage(), e);
+                refundProcessed = true;
             }
         }
 
@@ -352,27 +270,18 @@ public class OrderService {
             orderRepository.delete(order);
 
             message = refundProcessed
-                    ? "All items removed and refund processed successfully."
+                    ? "All items removed and refund initiated successfully."
                     : "All items removed and order cancelled.";
 
         } else {
 
-            BigDecimal subtotal = order.getItems().stream()
-                    .map(item -> BigDecimal.valueOf(item.getSubtotal()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal gst = subtotal.multiply(new BigDecimal("0.05"));
-            BigDecimal total = subtotal.add(gst);
-
-            order.setSubtotal(subtotal.floatValue());
-            order.setGst(gst.floatValue());
-            order.setTotal(total.floatValue());
+            OrderPricing.recalculateTotals(order);
             order.setUpdatedAt(LocalDateTime.now());
 
             orderRepository.save(order);
 
             message = refundProcessed
-                    ? "Item removed and refund processed successfully."
+                    ? "Item removed and refund initiated successfully."
                     : "Item removed successfully.";
         }
 
@@ -380,8 +289,9 @@ public class OrderService {
     }
 
     // Add review & rating
+    @Transactional
     public OrderItem addReviewAndRating(Long orderId, Long bookId, String review, Float rating) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found."));
 
         if (!"Delivered".equalsIgnoreCase(order.getOrderStatus())) {
@@ -398,13 +308,13 @@ public class OrderService {
         item.setReview(review);
         item.setRating(rating);
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found."));
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found.");
+        }
 
         if ((review != null && !review.isEmpty()) || rating != null) {
-            book.addReview(new Review(review, rating));
+            reviewService.addReview(bookId, review, rating);
         }
-        bookRepository.save(book);
 
         return orderRepository.save(order).getItems().stream()
                 .filter(i -> i.getBookId().equals(bookId))
@@ -416,7 +326,7 @@ public class OrderService {
     @Transactional
     public Order printOrder(Long orderId) {
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findDetailById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found."));
 
         if (!"Delivered".equalsIgnoreCase(order.getOrderStatus())) {
@@ -433,46 +343,29 @@ public class OrderService {
 
         LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
 
-        // Today's orders
-        long todaysOrderCount = orderRepository.countTodaysOrders(startOfToday);
-
-        // Total orders excluding cancelled
-        long totalOrdersCount = orderRepository.countTotalOrders();
-
-        // Today's sales
-        BigDecimal todaysOrderTotal = Optional.ofNullable(orderRepository.sumTodaysOrders(startOfToday))
-                .map(BigDecimal::valueOf)
-                .orElse(BigDecimal.ZERO);
-
-        // Total sales excluding cancelled
-        BigDecimal totalOrderAmount = Optional.ofNullable(orderRepository.sumTotalOrders())
-                .map(BigDecimal::valueOf)
-                .orElse(BigDecimal.ZERO);
+        // Today's and all-time orders and sales, excluding cancelled
+        OrderRangeStatsDTO today = salesRollupService.statsSince(startOfToday);
+        OrderRangeStatsDTO total = salesRollupService.allTimeStats();
 
         // Latest orders
         List<Order> recentOrders = orderRepository.findTop5ByOrderByCreatedAtDesc();
 
         return new OrderStatsDTO(
-                todaysOrderCount,
-                totalOrdersCount,
-                todaysOrderTotal,
-                totalOrderAmount,
+                today.getOrderCount(),
+                total.getOrderCount(),
+                today.getOrderTotal(),
+                total.getOrderTotal(),
                 recentOrders);
     }
 
     // Range stats (weekly/monthly)
     public OrderRangeStatsDTO getOrderStatsByRange(LocalDateTime startDate, LocalDateTime endDate) {
-        long orderCount = orderRepository.countOrdersInRange(startDate, endDate);
-        BigDecimal orderTotal = Optional.ofNullable(orderRepository.sumOrdersInRange(startDate, endDate))
-                .map(BigDecimal::valueOf)
-                .orElse(BigDecimal.ZERO);
-
-        return new OrderRangeStatsDTO(orderCount, orderTotal);
+        return salesRollupService.statsBetween(startDate, endDate);
     }
 
-    // Utility methods
+    // Utility methods; the order comes with its items
     public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId);
+        return orderRepository.findWithItemsById(orderId);
     }
 
     @Transactional
@@ -1,6 +1,5 @@
 package abubakar.bookapp.service;
 
-import java.math.BigDecimal;
 import java.util.Map;
 
 import org.json.JSONObject;
@@ -10,26 +9,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
-import com.razorpay.Refund;
 import com.razorpay.Utils;
 
-import abubakar.bookapp.models.Book;
 import abubakar.bookapp.models.Order;
-import abubakar.bookapp.models.OrderItem;
 import abubakar.bookapp.models.RazorpayInfo;
-import abubakar.bookapp.repository.BookRepository;
-import abubakar.bookapp.repository.CartRepository;
-import abubakar.bookapp.repository.OrderRepository;
 import abubakar.bookapp.repository.RazorpayInfoRepository;
 
 @Service
 public class PaymentService {
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
-
     @Value("${razorpay.key.secret}")
     private String razorpaySecret;
 
@@ -37,25 +26,16 @@ public class PaymentService {
     private RazorpayInfoRepository razorpayInfoRepository;
 
     @Autowired
-    private BookRepository bookRepository;
-
-    @Autowired
-    private OrderRepository orderRepository;
+    private CheckoutService checkoutService;
 
     @Autowired
-    private CartRepository cartRepository;
+    private RazorpayGateway razorpayGateway;
 
     public String createRazorpayOrder(float amount) {
         try {
-            RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpaySecret);
-
-            JSONObject options = new JSONObject();
-            options.put("amount", (int) (amount * 100)); // paise
-            options.put("currency", "INR");
-            options.put("receipt", "txn_" + System.currentTimeMillis());
-
-            com.razorpay.Order order = client.orders.create(options);
-            return order.toString();
+            return razorpayGateway
+                    .createOrder(OrderPricing.toPaiseAmount(amount), "txn_" + System.currentTimeMillis())
+                    .toString();
         } catch (RazorpayException e) {
             throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
                     "Failed to create Razorpay order: " + e.getMessage(), e);
@@ -84,64 +64,13 @@ public class PaymentService {
         // 1. Verify payment
         verifyPayment(razorpayOrderId, razorpayPaymentId, razorpaySignature);
 
-        // 2. Process items & stock like in OrderService.placeOrder()
-        float subtotal = 0f;
-
-        for (OrderItem item : order.getItems()) {
-            Book book = bookRepository.findById(item.getBookId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                            "Book not found with ID: " + item.getBookId()));
-
-            int newQuantity = book.getQuantity() - item.getQuantity();
-            if (newQuantity < 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                        "Insufficient stock for book: " + book.getName());
-            }
-
-            book.setQuantity(newQuantity);
-            bookRepository.save(book);
-
-            item.setBookName(book.getName());
-            item.setUnitPrice(book.getPrice().floatValue());
-
-            float itemSubtotal = book.getPrice()
-                    .multiply(BigDecimal.valueOf(item.getQuantity()))
-                    .floatValue();
-
-            item.setSubtotal(itemSubtotal);
-            item.setAuthorName(book.getAuthor() != null ? book.getAuthor().getName() : "Unknown");
-            item.setOrder(order);
-
-            subtotal += itemSubtotal;
-        }
-
-        // calculate GST
-        float gst = subtotal * 0.05f;
-
-        // calculate total
-        float total = subtotal + gst;
-
-        // set values in order
-        order.setSubtotal(subtotal);
-        order.setGst(gst);
-        order.setTotal(total);
-
-        if (order.getUser() != null) {
-            cartRepository.deleteByUserId(order.getUser().getId());
-        }
-
-        // 3. Save order directly
-        Order savedOrder = orderRepository.save(order);
-
-        // 4. Save payment info
+        // 2. Run the shared checkout pipeline with the payment details
         RazorpayInfo info = new RazorpayInfo();
-        info.setOrder(savedOrder);
         info.setRazorpayOrderId(razorpayOrderId);
         info.setRazorpayPaymentId(razorpayPaymentId);
         info.setRazorpaySignature(razorpaySignature);
 
-        razorpayInfoRepository.save(info);
-        return savedOrder;
+        return checkoutService.checkout(order, info);
     }
 
     public RazorpayInfo getRazorpayInfoByOrderId(Long orderId) {
@@ -153,47 +82,4 @@ public class PaymentService {
         return info;
     }
 
-    // public Refund refundPayment(String paymentId, double amountInINR) {
-    // try {
-    // RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpaySecret);
-
-    // JSONObject refundRequest = new JSONObject();
-    // refundRequest.put("payment_id", paymentId);
-    // refundRequest.put("amount", (int) (amountInINR * 100)); // convert INR →
-    // paise
-    // refundRequest.put("speed", "normal");
-
-    // return client.payments.refund(refundRequest);
-    // } catch (RazorpayException e) {
-    // throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
-    // "Razorpay refund failed: " + e.getMessage(), e);
-    // }
-    // }
-
-    public Refund refundPayment(String paymentId, double amountInINR) {
-        try {
-
-            RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpaySecret);
-
-            JSONObject refundRequest = new JSONObject();
-            refundRequest.put("amount", (int) (amountInINR * 100)); // INR → paise
-            refundRequest.put("speed", "normal");
-
-            Refund refund = client.payments.refund(paymentId, refundRequest);
-
-            System.out.println("Refund successful: " + refund.get("id"));
-
-            return refund;
-
-        } catch (RazorpayException e) {
-
-            System.out.println("Refund failed: " + e.getMessage());
-
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_GATEWAY,
-                    "Razorpay refund failed: " + e.getMessage(),
-                    e);
-        }
-    }
-
 }
@@ -0,0 +1,128 @@
+package abubakar.bookapp.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.razorpay.RazorpayException;
+
+/**
+ * Thin Razorpay REST client shared by the whole application. The SDK's
+ * RazorpayClient rebuilds its HTTP stack on every construction; this keeps one
+ * HttpClient (and its keep-alive connection pool) for the lifetime of the app.
+ *
+ * The base URL is configurable so it can be pointed at a local stub server.
+ *
+ * An error response from Razorpay is a definite rejection (RazorpayException).
+ * A timeout, I/O error or unreadable success response leaves it open whether
+ * Razorpay acted on the request (OutcomeUnknownException).
+ */
+@Component
+public class RazorpayGateway {
+
+    // The request may or may not have been carried out; check before sending it again
+    public static class OutcomeUnknownException extends RazorpayException {
+        public OutcomeUnknownException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String authorization;
+    private final Duration timeout;
+
+    public RazorpayGateway(
+            @Value("${razorpay.key.id}") String keyId,
+            @Value("${razorpay.key.secret}") String keySecret,
+            @Value("${razorpay.api.base-url:https://api.razorpay.com/v1}") String baseUrl,
+            @Value("${razorpay.api.timeout-ms:10000}") long timeoutMs) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(this.timeout)
+                .build();
+    }
+
+    // Create a Razorpay order (amount in paise)
+    public JSONObject createOrder(long amountInPaise, String receipt) throws RazorpayException {
+        JSONObject options = new JSONObject();
+        options.put("amount", amountInPaise);
+        options.put("currency", "INR");
+        options.put("receipt", receipt);
+        return post("/orders", options);
+    }
+
+    // Refund part or all of a captured payment (amount in paise)
+    public JSONObject refund(String paymentId, long amountInPaise, String receipt) throws RazorpayException {
+        JSONObject refundRequest = new JSONObject();
+        refundRequest.put("amount", amountInPaise);
+        refundRequest.put("speed", "normal");
+        refundRequest.put("receipt", receipt);
+        return post("/payments/" + paymentId + "/refund", refundRequest);
+    }
+
+    // Refunds already made on a payment, newest first ("items" array)
+    public JSONObject listRefunds(String paymentId) throws RazorpayException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/payments/" + paymentId + "/refunds?count=100"))
+                .GET());
+    }
+
+    private JSONObject post(String path, JSONObject body) throws RazorpayException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+    }
+
+    private JSONObject send(HttpRequest.Builder builder) throws RazorpayException {
+        HttpRequest request = builder
+                .timeout(timeout)
+                .header("Authorization", authorization)
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new OutcomeUnknownException("Razorpay request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutcomeUnknownException("Razorpay request interrupted", e);
+        }
+
+        if (response.statusCode() >= 300) {
+            throw new RazorpayException(errorDescription(response));
+        }
+        try {
+            return new JSONObject(response.body());
+        } catch (JSONException e) {
+            throw new OutcomeUnknownException("Unreadable Razorpay response: " + e.getMessage(), e);
+        }
+    }
+
+    private static String errorDescription(HttpResponse<String> response) {
+        try {
+            JSONObject error = new JSONObject(response.body()).optJSONObject("error");
+            if (error != null) {
+                return error.optString("description", response.body());
+            }
+        } catch (JSONException e) {
+            // not a Razorpay error body, e.g. from a proxy
+        }
+        return "HTTP " + response.statusCode();
+    }
+
+}
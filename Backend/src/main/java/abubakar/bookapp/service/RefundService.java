@@ -0,0 +1,205 @@
+package abubakar.bookapp.service;
+
+import java.time.LocalDateTime;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import abubakar.bookapp.models.RazorpayInfo;
+import abubakar.bookapp.models.RefundOutbox;
+import abubakar.bookapp.repository.RazorpayInfoRepository;
+import abubakar.bookapp.repository.RefundOutboxRepository;
+import abubakar.bookapp.service.RazorpayGateway.OutcomeUnknownException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Refund outbox. Callers queue a refund inside their own transaction and
+ * return immediately; a scheduled worker sends queued refunds to Razorpay
+ * with exponential backoff and records the result on RazorpayInfo.
+ *
+ * A refund must never be sent twice. Each row is claimed (PENDING ->
+ * IN_FLIGHT) before it is sent, so only one worker handles it. When an
+ * attempt ends without a definite answer (timeout, I/O error, or the result
+ * could not be recorded), the row is flagged outcomeUnknown and the next
+ * attempt first looks for a refund with its receipt on the payment. Only a
+ * refund Razorpay definitely rejected is sent again without that check.
+ *
+ * A refund that runs out of attempts is FAILED only when Razorpay definitely
+ * rejected its last attempt. One whose outcome is still unknown becomes
+ * UNKNOWN instead: it may have been paid out, so its amount stays reserved
+ * and it is left for someone to reconcile against the Razorpay dashboard.
+ */
+@Service
+public class RefundService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefundService.class);
+
+    private static final long MAX_BACKOFF_MS = 60 * 60 * 1000L;
+
+    @Autowired
+    private RefundOutboxRepository refundOutboxRepository;
+
+    @Autowired
+    private RazorpayInfoRepository razorpayInfoRepository;
+
+    @Autowired
+    private RazorpayGateway razorpayGateway;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${razorpay.refund.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${razorpay.refund.backoff-ms:5000}")
+    private long backoffMs;
+
+    @Value("${razorpay.refund.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    // Amount that can still be refunded, counting refunds already queued
+    public double remainingRefundable(RazorpayInfo info, double orderTotal) {
+        double refunded = info.getRefundedAmount() == null ? 0.0 : info.getRefundedAmount();
+        double pending = refundOutboxRepository.sumPendingAmount(info.getRazorpayPaymentId());
+        return orderTotal - refunded - pending;
+    }
+
+    // Queue a refund; it is sent once the caller's transaction has committed
+    @Transactional
+    public RefundOutbox enqueue(RazorpayInfo info, Long orderId, double amountInINR) {
+        RefundOutbox refund = new RefundOutbox();
+        refund.setRazorpayPaymentId(info.getRazorpayPaymentId());
+        refund.setOrderId(orderId);
+        refund.setAmount(amountInINR);
+        meterRegistry.counter("refunds", "outcome", "queued").increment();
+        return refundOutboxRepository.save(refund);
+    }
+
+    // Drain due refunds; the gateway call runs outside any DB transaction
+    @Scheduled(fixedDelayString = "${razorpay.refund.poll-interval-ms:5000}")
+    public void processPendingRefunds() {
+        LocalDateTime now = LocalDateTime.now();
+        refundOutboxRepository.releaseStaleClaims(now.minusNanos(claimTimeoutMs * 1_000_000L));
+
+        for (RefundOutbox refund : refundOutboxRepository
+                .findTop20ByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc("PENDING", now)) {
+            if (refundOutboxRepository.claim(refund.getId(), LocalDateTime.now()) == 1) {
+                process(refund);
+            }
+        }
+    }
+
+    private void process(RefundOutbox refund) {
+        refund.setStatus("IN_FLIGHT");
+        refund.setAttempts(refund.getAttempts() + 1);
+
+        String razorpayRefundId;
+        boolean checked = !refund.isOutcomeUnknown();
+        try {
+            razorpayRefundId = checked ? null : findSentRefund(refund);
+            checked = true;
+            if (razorpayRefundId == null) {
+                JSONObject result = razorpayGateway.refund(
+                        refund.getRazorpayPaymentId(),
+                        OrderPricing.toPaiseAmount(refund.getAmount()),
+                        receipt(refund));
+                razorpayRefundId = result.optString("id", null);
+            }
+        } catch (Exception e) {
+            // Unknown while the earlier attempt is unchecked or this one may have gone through
+            retry(refund, e, !checked || e instanceof OutcomeUnknownException);
+            return;
+        }
+
+        try {
+            String refundId = razorpayRefundId;
+            transactionTemplate.executeWithoutResult(status -> complete(refund, refundId));
+            meterRegistry.counter("refunds", "outcome", "completed").increment();
+        } catch (RuntimeException e) {
+            // Razorpay has the refund, we failed to record it; the next attempt will find it by receipt
+            retry(refund, e, true);
+        }
+    }
+
+    // Id of the refund an earlier attempt made, or null if Razorpay has none with this refund's receipt
+    private String findSentRefund(RefundOutbox refund) throws Exception {
+        JSONArray items = razorpayGateway.listRefunds(refund.getRazorpayPaymentId()).optJSONArray("items");
+        if (items == null) {
+            return null;
+        }
+        String receipt = receipt(refund);
+        for (int i = 0; i < items.length(); i++) {
+            JSONObject item = items.getJSONObject(i);
+            if (receipt.equals(item.optString("receipt", null))) {
+                return item.optString("id", null);
+            }
+        }
+        return null;
+    }
+
+    private void retry(RefundOutbox refund, Exception e, boolean outcomeUnknown) {
+        String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        refund.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        refund.setOutcomeUnknown(outcomeUnknown);
+
+        if (refund.getAttempts() >= maxAttempts && outcomeUnknown) {
+            // Never FAILED: that would free the amount for another refund Razorpay may already have paid
+            refund.setStatus("UNKNOWN");
+            refund.setProcessedAt(LocalDateTime.now());
+            meterRegistry.counter("refunds", "outcome", "unknown_final").increment();
+            log.warn("Refund {} of payment {} is unresolved after {} attempts; check it in Razorpay",
+                    refund.getId(), refund.getRazorpayPaymentId(), refund.getAttempts());
+        } else if (refund.getAttempts() >= maxAttempts) {
+            refund.setStatus("FAILED");
+            refund.setProcessedAt(LocalDateTime.now());
+            meterRegistry.counter("refunds", "outcome", "failed").increment();
+        } else {
+            long delay = Math.min(backoffMs << Math.min(refund.getAttempts() - 1, 20), MAX_BACKOFF_MS);
+            refund.setStatus("PENDING");
+            refund.setProcessedAt(null);
+            refund.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000L));
+            meterRegistry.counter("refunds", "outcome", outcomeUnknown ? "unknown" : "retry").increment();
+        }
+        refundOutboxRepository.save(refund);
+    }
+
+    private void complete(RefundOutbox refund, String razorpayRefundId) {
+        refund.setStatus("COMPLETED");
+        refund.setOutcomeUnknown(false);
+        refund.setRazorpayRefundId(razorpayRefundId);
+        refund.setProcessedAt(LocalDateTime.now());
+        refundOutboxRepository.save(refund);
+
+        // The payment info is gone when the whole order was deleted
+        RazorpayInfo info = razorpayInfoRepository.findByRazorpayPaymentId(refund.getRazorpayPaymentId());
+        if (info == null) {
+            return;
+        }
+
+        double refunded = (info.getRefundedAmount() == null ? 0.0 : info.getRefundedAmount()) + refund.getAmount();
+        info.setRefundedAmount(refunded);
+
+        if (info.getOrder() != null && refunded >= info.getOrder().getTotal()) {
+            info.setFullyRefunded(true);
+        }
+
+        razorpayInfoRepository.save(info);
+    }
+
+    // Sent to Razorpay with the refund and matched against its refund list
+    private static String receipt(RefundOutbox refund) {
+        return "refund_" + refund.getId();
+    }
+
+}
@@ -4,22 +4,38 @@ import abubakar.bookapp.models.Book;
 import abubakar.bookapp.models.Order;
 import abubakar.bookapp.models.OrderItem;
 import abubakar.bookapp.models.ReturnReplacement;
+import abubakar.bookapp.payload.CursorSliceDTO;
 import abubakar.bookapp.repository.BookRepository;
 import abubakar.bookapp.repository.ReturnReplacementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Return and replacement requests. Request images are written to disk in
+ * parallel outside the database transaction, so no connection is held while
+ * files stream in. If the transaction then fails, nothing refers to the new
+ * blobs and FileStorageService's sweep removes them after its grace period;
+ * they are not deleted here, as the same bytes may already back another
+ * record. Images a request drops are only removed once the change commits.
+ */
 @Service
 public class ReturnReplacementService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReturnReplacementService.class);
+
     @Autowired
     private ReturnReplacementRepository repo;
 
@@ -32,9 +48,24 @@ public class ReturnReplacementService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     // Create a new return/replacement request
-    @Transactional
     public ReturnReplacement createRequest(ReturnReplacement rr, List<MultipartFile> images) {
+        // Validate first so a rejected request never touches the disk
+        transactionTemplate.executeWithoutResult(status -> prepareRequest(rr));
+
+        List<String> imageUrls = fileStorageService.saveReturnReplacementImages(images);
+        if (!imageUrls.isEmpty()) {
+            rr.setImageUrls(imageUrls);
+        }
+
+        return transactionTemplate.execute(status -> repo.save(rr));
+    }
+
+    // Checks a new request against its order and fills in the customer details
+    private void prepareRequest(ReturnReplacement rr) {
         Order order = orderService.getOrderById(rr.getOrderId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
 
@@ -77,22 +108,6 @@ public class ReturnReplacementService {
         rr.setRequestedDate(LocalDateTime.now());
         rr.setProcessedDate(null);
         rr.setDeliveryDate(rr.getDeliveryDate() != null ? rr.getDeliveryDate() : LocalDateTime.now().plusDays(3));
-
-        // Handle file uploads
-        if (images != null && !images.isEmpty()) {
-            List<String> imageUrls = images.stream().map(file -> {
-                try {
-                    return fileStorageService.saveReturnReplacementImage(file, rr.getUserId(), rr.getOrderId(),
-                            rr.getBookId());
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to upload one or more images:" + file.getOriginalFilename(), e);
-                }
-            }).toList();
-
-            rr.setImageUrls(imageUrls);
-        }
-
-        return repo.save(rr);
     }
 
     public List<ReturnReplacement> getRequestsByUser(Long userId) {
@@ -104,87 +119,68 @@ public class ReturnReplacementService {
     }
 
     // Edit a return/replacement request (by id)
-    @Transactional
     public ReturnReplacement editRequest(Long returnId, ReturnReplacement updates, List<MultipartFile> images) {
-        ReturnReplacement existing = repo.findById(returnId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                        "Return/Replacement request not found"));
-
-        String status = existing.getStatus() == null ? "" : existing.getStatus().toUpperCase();
-
-        // Prevent editing finalized/processed requests
-        if (List.of("APPROVED", "RETURNED", "REPLACED", "REFUNDED", "REJECTED").contains(status)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Cannot edit a request that is already " + status.toLowerCase() + ".");
-        }
-
-        // Editable simple fields
-        if (updates.getCustomerName() != null)
-            existing.setCustomerName(updates.getCustomerName());
-        if (updates.getCustomerAddress() != null)
-            existing.setCustomerAddress(updates.getCustomerAddress());
-        if (updates.getCustomerPhone() != null)
-            existing.setCustomerPhone(updates.getCustomerPhone());
-        if (updates.getReason() != null)
-            existing.setReason(updates.getReason());
-        if (updates.getDeliveryDate() != null)
-            existing.setDeliveryDate(updates.getDeliveryDate());
+        // Refuse finalized requests before any new image is stored
+        ReturnReplacement current = transactionTemplate.execute(status -> findEditable(returnId, "edit"));
 
+        List<String> newUrls;
         try {
-            // Delete removed images
-            List<String> updatedImageUrls = updates.getImageUrls() != null ? updates.getImageUrls()
-                    : existing.getImageUrls();
-            List<String> imagesToDelete = existing.getImageUrls().stream()
-                    .filter(url -> !updatedImageUrls.contains(url))
-                    .toList();
-
-            fileStorageService.deleteReturnReplacementImages(imagesToDelete);
-            existing.setImageUrls(updatedImageUrls);
-
-            if (images != null && !images.isEmpty()) {
-                List<String> newUrls = fileStorageService.editReturnReplacementImages(
-                        existing.getUserId(), existing.getOrderId(), existing.getBookId(),
-                        List.of(), images);
-                existing.getImageUrls().addAll(newUrls);
-            }
+            newUrls = fileStorageService.saveReturnReplacementImages(images);
+        } catch (ResponseStatusException e) {
+            throw e; // rejected upload, keep its status
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Error updating request images: " + e.getMessage());
         }
 
-        // Save and return
-        return repo.save(existing);
+        List<String> imagesToDelete = new ArrayList<>();
+        ReturnReplacement saved = transactionTemplate.execute(status -> {
+            ReturnReplacement existing = findEditable(returnId, "edit");
+
+            // Editable simple fields
+            if (updates.getCustomerName() != null)
+                existing.setCustomerName(updates.getCustomerName());
+            if (updates.getCustomerAddress() != null)
+                existing.setCustomerAddress(updates.getCustomerAddress());
+            if (updates.getCustomerPhone() != null)
+                existing.setCustomerPhone(updates.getCustomerPhone());
+            if (updates.getReason() != null)
+                existing.setReason(updates.getReason());
+            if (updates.getDeliveryDate() != null)
+                existing.setDeliveryDate(updates.getDeliveryDate());
+
+            // Images the client dropped from the list go once this commits
+            List<String> keptImageUrls = updates.getImageUrls() != null ? updates.getImageUrls()
+                    : existing.getImageUrls();
+            existing.getImageUrls().stream()
+                    .filter(url -> !keptImageUrls.contains(url))
+                    .forEach(imagesToDelete::add);
+
+            List<String> imageUrls = new ArrayList<>(keptImageUrls);
+            imageUrls.addAll(newUrls);
+            existing.setImageUrls(imageUrls);
+
+            return repo.save(existing);
+        });
+
+        deleteImagesAfterCommit(imagesToDelete);
+        return saved;
     }
 
     // delete a return/replacement request (by id).
-    @Transactional
     public void deleteRequest(Long returnId) {
-        // Fetch existing request
-        ReturnReplacement rr = repo.findById(returnId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Return/Replacement request not found"));
-
-        String status = rr.getStatus() == null ? "" : rr.getStatus().toUpperCase();
+        List<String> imageUrls = transactionTemplate.execute(status -> {
+            ReturnReplacement rr = findEditable(returnId, "delete");
+            List<String> urls = rr.getImageUrls() == null ? List.of() : List.copyOf(rr.getImageUrls());
 
-        // Block deletion for finalized/processed requests
-        if (List.of("APPROVED", "RETURNED", "REPLACED", "REFUNDED", "REJECTED").contains(status)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Cannot delete a request that is already " + status.toLowerCase() + ".");
-        }
+            // Delete the request (no stock/order changes needed for PENDING or
+            // REJECTED)
+            repo.delete(rr);
+            return urls;
+        });
 
         // Safely delete any associated files
-        List<String> imageUrls = rr.getImageUrls() == null ? List.of() : rr.getImageUrls();
-        try {
-            fileStorageService.deleteReturnReplacementImages(imageUrls);
-        } catch (Exception e) {
-            throw new ResponseStatusException(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Failed to delete associated files: " + e.getMessage(), e);
-        }
-
-        // Delete the request (no stock/order changes needed for PENDING or
-        // REJECTED)
-        repo.delete(rr);
+        deleteImagesAfterCommit(imageUrls);
     }
 
     // Update status done by admin
@@ -286,11 +282,36 @@ public class ReturnReplacementService {
     }
 
     // ---------------- Helper Methods ----------------
+
+    // Request by id, refusing requests that are already finalized/processed
+    private ReturnReplacement findEditable(Long returnId, String action) {
+        ReturnReplacement rr = repo.findById(returnId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Return/Replacement request not found"));
+
+        String status = rr.getStatus() == null ? "" : rr.getStatus().toUpperCase();
+        if (List.of("APPROVED", "RETURNED", "REPLACED", "REFUNDED", "REJECTED").contains(status)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cannot " + action + " a request that is already " + status.toLowerCase() + ".");
+        }
+        return rr;
+    }
+
+    // The request no longer points at these files, so a failure here only leaves garbage behind
+    private void deleteImagesAfterCommit(List<String> imageUrls) {
+        try {
+            fileStorageService.deleteReturnReplacementImages(imageUrls);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete return/replacement images {}: {}", imageUrls, e.toString());
+        }
+    }
+
     /**
      * Adjusts order item quantity, subtotal, and recalculates total
-     * for both RETURN and REPLACEMENT approval flows.
+     * for both RETURN and REPLACEMENT approval flows. Package-private
+     * so the return benchmark can drive it directly.
      */
-    private void adjustOrderForReturnOrReplacement(Order order, ReturnReplacement rr, int qty) {
+    void adjustOrderForReturnOrReplacement(Order order, ReturnReplacement rr, int qty) {
 
         order.getItems().stream()
                 .filter(i -> i.getBookId().equals(rr.getBookId()))
@@ -318,28 +339,11 @@ public class ReturnReplacementService {
                                 orderItem.getReplacedQuantity() + qty);
                     }
 
-                    // Calculate effective quantity (for billing only)
-                    int effectiveQty = orderItem.getQuantity()
-                            - orderItem.getReturnedQuantity()
-                            - orderItem.getReplacedQuantity();
-
-                    if (effectiveQty < 0)
-                        effectiveQty = 0;
-
-                    orderItem.setSubtotal(orderItem.getUnitPrice() * effectiveQty);
+                    // Bill only the quantity that is neither returned nor replaced
+                    orderItem.setSubtotal(OrderPricing.effectiveSubtotal(orderItem).floatValue());
                 });
 
-        // Recalculate order totals
-        float subtotal = (float) order.getItems().stream()
-                .mapToDouble(OrderItem::getSubtotal)
-                .sum();
-
-        float gst = subtotal * 0.05f;
-        float total = subtotal + gst;
-
-        order.setSubtotal(subtotal);
-        order.setGst(gst);
-        order.setTotal(total);
+        OrderPricing.recalculateTotals(order);
     }
 
     /**
@@ -376,8 +380,9 @@ public class ReturnReplacementService {
         return rr;
     }
 
-    public List<ReturnReplacement> getAllRequests() {
-        return repo.findAll();
+    // Requests older than the cursor, newest first
+    public Slice<ReturnReplacement> getRequestsBefore(Long after, int limit) {
+        return repo.findByIdLessThanOrderByIdDesc(CursorSliceDTO.seekFrom(after), CursorSliceDTO.limit(limit));
     }
 
     public List<ReturnReplacement> getRequestsByStatus(String status) {
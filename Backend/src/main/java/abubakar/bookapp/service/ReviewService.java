@@ -0,0 +1,142 @@
+package abubakar.bookapp.service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import abubakar.bookapp.models.Review;
+import abubakar.bookapp.payload.CursorSliceDTO;
+import abubakar.bookapp.repository.BookRepository;
+import abubakar.bookapp.repository.ReviewRepository;
+
+@Service
+public class ReviewService {
+
+    public static final String SORT_RECENT = "recent";
+    public static final String SORT_RATING = "rating";
+
+    // Element collection that held reviews before they got their own table
+    private static final String LEGACY_TABLE = "book_reviews";
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    /**
+     * Move legacy reviews into the reviews table, then fill missing rating
+     * aggregates. Unrated reviews are stored with rating 0; a reviews table
+     * from before that still allows NULL is backfilled and made NOT NULL first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void prepareReviews() {
+        if (ratingNullable()) {
+            jdbcTemplate.update("UPDATE reviews SET rating = 0 WHERE rating IS NULL");
+            jdbcTemplate.execute("ALTER TABLE reviews MODIFY rating FLOAT NOT NULL DEFAULT 0");
+        }
+        if (reviewRepository.count() == 0 && legacyTableExists()) {
+            jdbcTemplate.update("INSERT INTO reviews (book_id, comment, rating, created_at) "
+                    + "SELECT book_id, comment, COALESCE(rating, 0), CURRENT_TIMESTAMP FROM " + LEGACY_TABLE);
+        }
+        bookRepository.backfillRatings();
+    }
+
+    // One cursor slice of a book's reviews, by recency or by rating
+    @Transactional(readOnly = true)
+    public Slice<Review> getReviews(Long bookId, Long after, int limit, String sort) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found");
+        }
+
+        long cursor = CursorSliceDTO.seekFrom(after);
+
+        if (SORT_RATING.equalsIgnoreCase(sort)) {
+            // Continue below the rating of the last review seen; start above any rating
+            float rating = 6f;
+            if (after != null) {
+                // The cursor must be one of this book's reviews, or the seek lands anywhere
+                Review last = reviewRepository.findById(after)
+                        .filter(review -> bookId.equals(review.getBookId()))
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+                rating = last.getRating();
+            }
+            return reviewRepository.findByBookIdRatedBelow(bookId, rating, cursor, CursorSliceDTO.limit(limit));
+        }
+
+        if (!SORT_RECENT.equalsIgnoreCase(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+        }
+        return reviewRepository.findByBookIdAndIdLessThanOrderByIdDesc(bookId, cursor, CursorSliceDTO.limit(limit));
+    }
+
+    // Store a review and fold its rating into the book's aggregates
+    @Transactional
+    public Review addReview(Long bookId, String comment, Float rating) {
+        Review review = reviewRepository.save(new Review(bookId, comment, rating));
+
+        if (rating != null) {
+            bookRepository.addRating(bookId, rating);
+            events.publishEvent(CatalogChangedEvent.stockChanged(List.of(bookId)));
+        }
+        return review;
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private boolean ratingNullable() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) this::isRatingNullable));
+    }
+
+    private boolean isRatingNullable(Connection connection) throws SQLException {
+        for (String table : new String[] { "reviews", "REVIEWS" }) {
+            for (String column : new String[] { "rating", "RATING" }) {
+                try (ResultSet columns = connection.getMetaData()
+                        .getColumns(connection.getCatalog(), null, table, column)) {
+                    if (columns.next()) {
+                        return columns.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) this::hasLegacyTable));
+    }
+
+    private boolean hasLegacyTable(Connection connection) throws SQLException {
+        for (String name : new String[] { LEGACY_TABLE, LEGACY_TABLE.toUpperCase() }) {
+            try (ResultSet tables = connection.getMetaData()
+                    .getTables(connection.getCatalog(), null, name, new String[] { "TABLE" })) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,111 @@
+package abubakar.bookapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import abubakar.bookapp.payload.OrderRangeStatsDTO;
+import abubakar.bookapp.repository.OrderRepository;
+import abubakar.bookapp.repository.SalesHourlyRollupRepository;
+
+/**
+ * Answers the dashboard stats from the hourly rollups kept by
+ * {@link OrderRollupListener}. Only the partial hours at the edges of a range
+ * are counted from the orders table, so the cost does not grow with history.
+ */
+@Service
+public class SalesRollupService {
+
+    @Autowired
+    private SalesHourlyRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderRollupListener rollupListener;
+
+    // Fill the rollups from existing orders the first time they are used
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+
+        for (Object[] row : orderRepository.sumOrdersByHour()) {
+            LocalDateTime hour = LocalDateTime.of(
+                    ((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue(), ((Number) row[3]).intValue(), 0);
+            rollupListener.add(hour, ((Number) row[4]).longValue(), money(((Number) row[5]).doubleValue()));
+        }
+    }
+
+    // Orders and sales created from the given time on
+    public OrderRangeStatsDTO statsSince(LocalDateTime from) {
+        LocalDateTime firstFullHour = ceilToHour(from);
+        OrderRangeStatsDTO stats = rollupRepository.totalsSince(firstFullHour);
+
+        if (from.isBefore(firstFullHour)) {
+            add(stats, orderRepository.countOrdersUntil(from, firstFullHour),
+                    orderRepository.sumOrdersUntil(from, firstFullHour));
+        }
+        return stats;
+    }
+
+    // Orders and sales of all time
+    public OrderRangeStatsDTO allTimeStats() {
+        return rollupRepository.totalsAll();
+    }
+
+    // Orders and sales created between start and end, both inclusive
+    public OrderRangeStatsDTO statsBetween(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            return new OrderRangeStatsDTO();
+        }
+
+        LocalDateTime firstFullHour = ceilToHour(start);
+        LocalDateTime lastHour = end.truncatedTo(ChronoUnit.HOURS);
+
+        // Less than one whole hour inside the range
+        if (!firstFullHour.isBefore(lastHour)) {
+            OrderRangeStatsDTO stats = new OrderRangeStatsDTO();
+            add(stats, orderRepository.countOrdersInRange(start, end), orderRepository.sumOrdersInRange(start, end));
+            return stats;
+        }
+
+        OrderRangeStatsDTO stats = rollupRepository.totalsBetween(firstFullHour, lastHour);
+
+        if (start.isBefore(firstFullHour)) {
+            add(stats, orderRepository.countOrdersUntil(start, firstFullHour),
+                    orderRepository.sumOrdersUntil(start, firstFullHour));
+        }
+        add(stats, orderRepository.countOrdersInRange(lastHour, end), orderRepository.sumOrdersInRange(lastHour, end));
+
+        return stats;
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private static void add(OrderRangeStatsDTO stats, long count, double sum) {
+        stats.setOrderCount(stats.getOrderCount() + count);
+        stats.setOrderTotal(stats.getOrderTotal().add(money(sum)));
+    }
+
+    private static LocalDateTime ceilToHour(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+
+    private static BigDecimal money(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+}
@@ -0,0 +1,135 @@
+package abubakar.bookapp.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.OrderItem;
+import abubakar.bookapp.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class StockReservationService {
+
+    // Only succeeds when enough stock is left, so concurrent checkouts can never oversell
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE books SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Loads all books referenced by an order with one IN query, keyed by id in
+     * ascending order. Fails if any item points at an unknown book.
+     */
+    public Map<Long, Book> loadBooks(List<OrderItem> items) {
+        Map<Long, Book> books = new LinkedHashMap<>();
+        for (Book book : bookRepository.findByIdInOrderByIdAsc(requestedQuantities(items).keySet())) {
+            books.put(book.getId(), book);
+        }
+
+        for (OrderItem item : items) {
+            if (!books.containsKey(item.getBookId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Book not found with ID: " + item.getBookId());
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Reserves stock for all items of an order with one JDBC batch, always in
+     * ascending book id order so two checkouts touching the same books lock the
+     * rows in the same sequence.
+     *
+     * The loaded books are not modified in memory, so Hibernate never flushes a
+     * stale quantity over the batch update.
+     */
+    @Transactional
+    public void reserve(List<OrderItem> items, Map<Long, Book> books) {
+
+        TreeMap<Long, Integer> requested = requestedQuantities(items);
+
+        // Fail fast with a clear message before touching any row
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Book book = books.get(entry.getKey());
+            if (book.getQuantity() < entry.getValue()) {
+                meterRegistry.counter("checkout.stockouts", "stage", "check").increment();
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Insufficient stock for book: " + book.getName());
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> decrements = new ArrayList<>(requested.entrySet());
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> entry = decrements.get(i);
+                ps.setInt(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+                ps.setInt(3, entry.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return decrements.size();
+            }
+        });
+
+        // Each line must have updated exactly one row. 0 means another checkout took the stock after we
+        // read it; SUCCESS_NO_INFO (a driver that rewrites batches) does not prove the stock was there.
+        // Either way the exception rolls back every decrement of this order.
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 1) {
+                meterRegistry.counter("checkout.stockouts", "stage", "reserve").increment();
+                Book book = books.get(decrements.get(i).getKey());
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Insufficient stock for book: " + book.getName());
+            }
+        }
+
+        // The batch bypasses the entity listeners, so tell the catalog cache directly
+        events.publishEvent(CatalogChangedEvent.stockChanged(requested.keySet()));
+    }
+
+    // Merge duplicate lines for the same book, sorted by book id
+    private TreeMap<Long, Integer> requestedQuantities(List<OrderItem> items) {
+        TreeMap<Long, Integer> requested = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getBookId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book ID is required for every item.");
+            }
+            if (item.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Quantity must be greater than zero for book ID: " + item.getBookId());
+            }
+            requested.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+        return requested;
+    }
+
+}
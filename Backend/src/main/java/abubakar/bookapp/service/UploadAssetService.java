@@ -0,0 +1,104 @@
+package abubakar.bookapp.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Looks up uploaded files for ImageController and keeps their metadata in
+ * memory. Upload names are content hashes (random UUIDs for older files), so
+ * a file's bytes and type never change while it exists; entries are dropped
+ * when FileStorageService deletes or re-links the file and otherwise expire
+ * after an hour.
+ */
+@Service
+public class UploadAssetService {
+
+    private static final int MAX_CACHED_ASSETS = 10_000;
+
+    public record Asset(Path path, long length, long lastModified, MediaType contentType, String etag) {
+    }
+
+    private final Path root;
+
+    private final Cache<String, Asset> assets = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_ASSETS)
+            .expireAfterWrite(Duration.ofHours(1))
+            .recordStats()
+            .build();
+
+    public UploadAssetService(@Value("${file.upload-dir}") String uploadDir, MeterRegistry meterRegistry) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        // Same tag keys as the catalog caches Spring Boot binds, or Prometheus drops one set of them
+        CaffeineCacheMetrics.monitor(meterRegistry, assets, "uploads.assets",
+                Tags.of("cache.manager", "uploads", "name", "uploads.assets"));
+    }
+
+    // Metadata of an upload by its path below /uploads/, or null if there is no such file
+    public Asset find(String relativePath) {
+        Asset cached = assets.getIfPresent(relativePath);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path file = resolve(relativePath);
+        if (file == null) {
+            return null;
+        }
+
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return null;
+            }
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            Asset asset = new Asset(file, attrs.size(), lastModified, contentType(file), etag(attrs.size(), lastModified));
+            assets.put(relativePath, asset);
+            return asset;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void evict(String relativePath) {
+        assets.invalidate(relativePath);
+    }
+
+    // Absolute file for a path below /uploads/, or null if it points outside the upload directory
+    public Path resolve(String relativePath) {
+        Path file = root.resolve(relativePath).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private static MediaType contentType(Path file) throws IOException {
+        MediaType byName = MediaTypeFactory.getMediaType(file.getFileName().toString()).orElse(null);
+        if (byName != null) {
+            return byName;
+        }
+        String probed = Files.probeContentType(file);
+        return probed != null ? MediaType.parseMediaType(probed) : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    // Size and mtime, like most static file servers; strong because the content never changes in place
+    private static String etag(long length, long lastModified) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+}
@@ -2,10 +2,9 @@ package abubakar.bookapp.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -29,14 +28,15 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutboxService mailOutboxService;
 
     @Autowired
     private FileStorageService fileStorageService;
 
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
-    // Generate reset token
+    // Generate reset token; the mail is queued with it and sent in the background
+    @Transactional
     public String generateResetToken(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
@@ -46,27 +46,18 @@ public class UserService {
         user.setTokenExpiry(LocalDateTime.now().plusHours(1));
         userRepository.save(user);
 
-        try {
-            String resetUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .scheme("http")
-                    .host("localhost")
-                    .port(3000)
-                    .path("/reset-password")
-                    .queryParam("token", token)
-                    .toUriString();
-
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(user.getEmail());
-            message.setSubject("Password Reset Request");
-            message.setText("Click the link to reset your password: " + resetUrl);
-            mailSender.send(message);
-
-            return "Password reset email sent successfully";
+        String resetUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .scheme("http")
+                .host("localhost")
+                .port(3000)
+                .path("/reset-password")
+                .queryParam("token", token)
+                .toUriString();
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to send reset email", e);
-        }
+        mailOutboxService.enqueue(user.getEmail(), "Password Reset Request",
+                "Click the link to reset your password: " + resetUrl);
+
+        return "Password reset email sent successfully";
     }
 
     // Reset password
@@ -140,7 +131,7 @@ public class UserService {
 
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid JSON format in profile data");
-        } catch (FileStorageException e) {
+        } catch (FileStorageException | ResponseStatusException e) {
             throw e; // handled globally
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update profile");
@@ -0,0 +1,34 @@
+package abubakar.bookapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+/**
+ * The catalog caches are bound by Spring Boot and the upload caches by their
+ * services. Prometheus drops a meter whose tag keys differ from the ones
+ * already registered under its name, so both kinds must use the same keys.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class CacheMetricsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void catalogAndUploadCachesAreScrapedTogether() {
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(scrape)
+                .contains("cache=\"catalog.books\"")
+                .contains("cache=\"catalog.listings\"")
+                .contains("cache=\"uploads.assets\"")
+                .contains("cache=\"uploads.variants\"");
+    }
+
+}
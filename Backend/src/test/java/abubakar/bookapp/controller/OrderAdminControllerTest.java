@@ -0,0 +1,201 @@
+package abubakar.bookapp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import abubakar.bookapp.models.Order;
+import abubakar.bookapp.models.OrderItem;
+import abubakar.bookapp.models.User;
+import abubakar.bookapp.repository.OrderRepository;
+import abubakar.bookapp.repository.UserRepository;
+import abubakar.bookapp.security.JwtUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admin order endpoints against seeded orders.
+ *
+ * The query budget of the order list is read from http.server.queries the
+ * way production reports it. A page costs the same number of statements
+ * whatever its size or the number of customers on it: one for the orders
+ * with their customers, one for the items of the whole page.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderAdminControllerTest {
+
+    private static final String HANDLER = "OrderAdminController.getAllOrders";
+
+    private static final int QUERIES_PER_PAGE = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String adminToken;
+
+    @BeforeEach
+    void seed() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // 10 customers with 3 orders of 2 items each
+        List<Order> orders = new ArrayList<>();
+        for (int u = 0; u < 10; u++) {
+            User user = new User();
+            user.setName("Customer " + u);
+            user.setEmail("customer" + u + "@example.com");
+            user = userRepository.save(user);
+            for (int o = 0; o < 3; o++) {
+                orders.add(order(user));
+            }
+        }
+        orderRepository.saveAll(orders);
+
+        adminToken = "Bearer " + jwtUtils.generateJwtToken("admin@example.com", "ROLE_ADMIN");
+    }
+
+    @Test
+    void orderListRunsAConstantNumberOfQueries() throws Exception {
+        long small = queriesFor("/api/admin/orders?limit=2", 2);
+        long page = queriesFor("/api/admin/orders?limit=20", 20);
+        long all = queriesFor("/api/admin/orders?limit=50", 30);
+
+        assertThat(small).isEqualTo(QUERIES_PER_PAGE);
+        assertThat(page).isEqualTo(QUERIES_PER_PAGE);
+        assertThat(all).isEqualTo(QUERIES_PER_PAGE);
+    }
+
+    @Test
+    void ndjsonExportHasOneParsableOrderPerLine() throws Exception {
+        String body = export("ndjson");
+
+        assertThat(body).endsWith("\n");
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(30);
+
+        long previousId = 0;
+        for (String line : lines) {
+            assertThat(line).startsWith("{");
+            JsonNode order = objectMapper.readTree(line);
+            assertThat(order.get("id").asLong()).isGreaterThan(previousId);
+            assertThat(order.get("items")).hasSize(2);
+            previousId = order.get("id").asLong();
+        }
+    }
+
+    @Test
+    void csvExportQuotesCommasQuotesAndLineBreaks() throws Exception {
+        Order tricky = order(userRepository.findByEmail("customer0@example.com").orElseThrow());
+        tricky.setUserName("Smith, \"Jr\"");
+        tricky.setAddress("Flat 4\nMain Road");
+        tricky.getItems().get(0).setBookName("Tea, Coffee");
+        orderRepository.save(tricky);
+
+        String body = export("csv");
+
+        assertThat(body).startsWith("orderId,userId,userName,");
+        assertThat(body)
+                .contains(",\"Smith, \"\"Jr\"\"\",")
+                .contains(",\"Flat 4\nMain Road\",")
+                .contains(",\"Tea, Coffee\",")
+                .contains(",Customer 1,UPI,");
+        // Header plus one line per item; the quoted line break is not a record separator
+        assertThat(body.split("\r\n")).hasSize(1 + 31 * 2);
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    // The export streams from another thread, so the body comes with the async dispatch
+    private String export(String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/admin/orders/export?format=" + format)
+                .header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    // Statements the request ran, as recorded for its handler
+    private long queriesFor(String url, int expectedOrders) throws Exception {
+        double before = queries().totalAmount();
+
+        mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(expectedOrders))
+                .andExpect(jsonPath("$.content[0].items.length()").value(2));
+
+        return (long) (queries().totalAmount() - before);
+    }
+
+    private DistributionSummary queries() {
+        return DistributionSummary.builder("http.server.queries")
+                .tag("handler", HANDLER)
+                .register(meterRegistry);
+    }
+
+    private static Order order(User user) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setUserName(user.getName());
+        order.setOrderMode("UPI");
+        order.setAddress("1 Test Street");
+        order.setPhoneNumber("9999999999");
+        order.setSubtotal(200f);
+        order.setTotal(236f);
+        order.setGst(36f);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setBookId((long) i + 1);
+            item.setBookName("Book " + (i + 1));
+            item.setQuantity(1);
+            item.setUnitPrice(100f);
+            item.setSubtotal(100f);
+            items.add(item);
+        }
+        order.setItems(items);
+        return order;
+    }
+
+}
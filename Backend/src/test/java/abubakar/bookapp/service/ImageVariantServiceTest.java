@@ -0,0 +1,43 @@
+package abubakar.bookapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+@SpringBootTest
+class ImageVariantServiceTest {
+
+    private static final String ORIGINAL = "blobs/ab/cd/abcd-variant-test.png";
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private UploadAssetService uploadAssetService;
+
+    @Test
+    void variantIsNotScaledAgain() throws Exception {
+        FileSystemUtils.deleteRecursively(uploadAssetService.resolve("variants/320/variants"));
+        Path original = uploadAssetService.resolve(ORIGINAL);
+        Files.createDirectories(original.getParent());
+        ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        String variant = imageVariantService.resolve(ORIGINAL, 600);
+        assertThat(variant).isEqualTo("variants/640/" + ORIGINAL);
+        assertThat(uploadAssetService.resolve(variant)).isRegularFile();
+
+        // e.g. /uploads/variants/640/blobs/..?w=300
+        assertThat(imageVariantService.resolve(variant, 300)).isEqualTo(variant);
+        assertThat(uploadAssetService.resolve("variants/320/variants")).doesNotExist();
+    }
+
+}
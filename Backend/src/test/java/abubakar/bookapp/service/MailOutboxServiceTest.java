@@ -0,0 +1,279 @@
+package abubakar.bookapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import abubakar.bookapp.models.MailOutbox;
+import abubakar.bookapp.repository.MailOutboxRepository;
+
+/**
+ * Mail outbox against a minimal SMTP server on a local socket. The server
+ * counts connections and refuses the recipients in REJECTED with a 550, as
+ * a real server does for an unknown mailbox.
+ */
+@SpringBootTest(properties = {
+        "mail.outbox.max-attempts=3",
+        "mail.outbox.backoff-ms=1000",
+        "mail.outbox.poll-interval-ms=3600000"
+})
+class MailOutboxServiceTest {
+
+    private static final Set<String> REJECTED = Set.of("nobody@example.com");
+
+    private static final SmtpStub smtp = new SmtpStub();
+
+    @Autowired
+    private MailOutboxService mailOutboxService;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @DynamicPropertySource
+    static void smtpServer(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", smtp::port);
+    }
+
+    @AfterAll
+    static void stopSmtp() {
+        smtp.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        mailOutboxRepository.deleteAll();
+        smtp.connections.set(0);
+        smtp.recipients.clear();
+        smtp.delivered.clear();
+    }
+
+    @Test
+    void batchIsSentOverOneConnection() {
+        List<MailOutbox> mails = List.of(
+                mailOutboxService.enqueue("a@example.com", "Order placed", "Thanks"),
+                mailOutboxService.enqueue("b@example.com", "Order placed", "Thanks"),
+                mailOutboxService.enqueue("c@example.com", "Order shipped", "On its way"));
+
+        mailOutboxService.dispatchPendingMails();
+
+        assertThat(smtp.connections).hasValue(1);
+        assertThat(smtp.delivered).containsExactly("a@example.com", "b@example.com", "c@example.com");
+        for (MailOutbox mail : mails) {
+            MailOutbox sent = mailOutboxRepository.findById(mail.getId()).orElseThrow();
+            assertThat(sent.getStatus()).isEqualTo("SENT");
+            assertThat(sent.getAttempts()).isEqualTo(1);
+            assertThat(sent.getSentAt()).isNotNull();
+        }
+    }
+
+    @Test
+    void rejectedRecipientBacksOffAndEndsDead() {
+        MailOutbox rejected = mailOutboxService.enqueue("nobody@example.com", "Order placed", "Thanks");
+        MailOutbox accepted = mailOutboxService.enqueue("a@example.com", "Order placed", "Thanks");
+
+        // First attempt: the other mail in the batch still goes out, on the same connection
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        mailOutboxService.dispatchPendingMails();
+
+        assertThat(smtp.connections).hasValue(1);
+        assertThat(smtp.delivered).containsExactly("a@example.com");
+        assertThat(mailOutboxRepository.findById(accepted.getId()).orElseThrow().getStatus()).isEqualTo("SENT");
+
+        MailOutbox afterFirst = mailOutboxRepository.findById(rejected.getId()).orElseThrow();
+        assertThat(afterFirst.getStatus()).isEqualTo("PENDING");
+        assertThat(afterFirst.getAttempts()).isEqualTo(1);
+        assertThat(afterFirst.getLastError()).isNotBlank();
+        assertThat(afterFirst.getNextAttemptAt()).isAfterOrEqualTo(start.plusSeconds(1));
+
+        // Not due yet, so an immediate poll leaves it alone
+        mailOutboxService.dispatchPendingMails();
+        assertThat(smtp.recipients).containsOnlyOnce("nobody@example.com");
+
+        // Second attempt waits twice as long
+        start = makeDue(rejected);
+        mailOutboxService.dispatchPendingMails();
+
+        MailOutbox afterSecond = mailOutboxRepository.findById(rejected.getId()).orElseThrow();
+        assertThat(afterSecond.getStatus()).isEqualTo("PENDING");
+        assertThat(afterSecond.getAttempts()).isEqualTo(2);
+        assertThat(afterSecond.getNextAttemptAt()).isAfterOrEqualTo(start.plusSeconds(2));
+
+        // Third and last attempt
+        makeDue(rejected);
+        mailOutboxService.dispatchPendingMails();
+
+        MailOutbox dead = mailOutboxRepository.findById(rejected.getId()).orElseThrow();
+        assertThat(dead.getStatus()).isEqualTo("DEAD");
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        assertThat(smtp.delivered).containsExactly("a@example.com");
+
+        // Given up for good
+        makeDue(rejected);
+        mailOutboxService.dispatchPendingMails();
+        assertThat(mailOutboxRepository.findById(rejected.getId()).orElseThrow().getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void claimedMailIsNotSentByAnotherWorker() {
+        MailOutbox mail = mailOutboxService.enqueue("a@example.com", "Reset your password", "Link");
+
+        assertThat(mailOutboxRepository.claim(mail.getId(), LocalDateTime.now())).isEqualTo(1);
+        assertThat(mailOutboxRepository.claim(mail.getId(), LocalDateTime.now())).isZero();
+
+        mailOutboxService.dispatchPendingMails();
+
+        assertThat(smtp.connections).hasValue(0);
+        assertThat(mailOutboxRepository.findById(mail.getId()).orElseThrow().getStatus()).isEqualTo("IN_FLIGHT");
+    }
+
+    @Test
+    void staleClaimIsQueuedAgain() {
+        MailOutbox mail = mailOutboxService.enqueue("a@example.com", "Reset your password", "Link");
+
+        // Claimed by a worker that died an hour ago
+        mailOutboxRepository.claim(mail.getId(), LocalDateTime.now().minusHours(1));
+
+        mailOutboxService.dispatchPendingMails();
+
+        assertThat(smtp.delivered).containsExactly("a@example.com");
+        assertThat(mailOutboxRepository.findById(mail.getId()).orElseThrow().getStatus()).isEqualTo("SENT");
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    // Skip the rest of the backoff; returns the time just before the next dispatch
+    private LocalDateTime makeDue(MailOutbox mail) {
+        MailOutbox stored = mailOutboxRepository.findById(mail.getId()).orElseThrow();
+        stored.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        mailOutboxRepository.save(stored);
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // Just enough SMTP for JavaMail: greeting, EHLO, MAIL, RCPT, DATA, RSET, NOOP and QUIT
+    private static final class SmtpStub implements AutoCloseable {
+
+        private final ServerSocket server;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> recipients = new CopyOnWriteArrayList<>(); // every RCPT, accepted or not
+        private final List<String> delivered = new CopyOnWriteArrayList<>(); // recipients of completed DATA
+
+        SmtpStub() {
+            try {
+                server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            Thread acceptor = new Thread(this::accept, "smtp-stub");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    Thread session = new Thread(() -> converse(socket), "smtp-stub-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return; // closed
+                }
+            }
+        }
+
+        private void converse(Socket socket) {
+            try (socket;
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+
+                reply(out, "220 localhost SMTP stub");
+                List<String> accepted = new CopyOnWriteArrayList<>();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 localhost");
+                        case "MAIL" -> {
+                            accepted.clear();
+                            reply(out, "250 OK");
+                        }
+                        case "RCPT" -> {
+                            String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                            recipients.add(address);
+                            if (REJECTED.contains(address)) {
+                                reply(out, "550 5.1.1 <" + address + ">: mailbox unavailable");
+                            } else {
+                                accepted.add(address);
+                                reply(out, "250 OK");
+                            }
+                        }
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // message body is not needed
+                            }
+                            delivered.addAll(accepted);
+                            accepted.clear();
+                            reply(out, "250 OK");
+                        }
+                        case "RSET" -> {
+                            accepted.clear();
+                            reply(out, "250 OK");
+                        }
+                        case "NOOP" -> reply(out, "250 OK");
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "502 Command not implemented");
+                    }
+                }
+            } catch (IOException e) {
+                // client went away
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+package abubakar.bookapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import abubakar.bookapp.models.RazorpayInfo;
+import abubakar.bookapp.models.RefundOutbox;
+import abubakar.bookapp.repository.RazorpayInfoRepository;
+import abubakar.bookapp.repository.RefundOutboxRepository;
+
+/**
+ * Refund outbox against a local stand-in for the Razorpay API. The stub
+ * keeps the refunds it accepted, so a refund sent twice shows up twice.
+ */
+@SpringBootTest(properties = {
+        "razorpay.api.timeout-ms=500",
+        "razorpay.refund.backoff-ms=0",
+        "razorpay.refund.max-attempts=2",
+        "razorpay.refund.poll-interval-ms=3600000"
+})
+class RefundServiceTest {
+
+    private static final String PAYMENT_ID = "pay_test";
+
+    private static final HttpServer razorpay = startStub();
+
+    // Refunds the stub accepted, as Razorpay would list them
+    private static final List<JSONObject> accepted = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger refundCalls = new AtomicInteger();
+    private static final AtomicInteger listCalls = new AtomicInteger();
+
+    // Behaviour of the next refund calls: "ok", "slow" (accepted, answered after the client timeout) or "reject"
+    private static final List<String> script = new CopyOnWriteArrayList<>();
+
+    // Behaviour of the next refund list calls: "ok" or "slow" (answered after the client timeout)
+    private static final List<String> listScript = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private RefundService refundService;
+
+    @Autowired
+    private RefundOutboxRepository refundOutboxRepository;
+
+    @Autowired
+    private RazorpayInfoRepository razorpayInfoRepository;
+
+    @DynamicPropertySource
+    static void razorpayUrl(DynamicPropertyRegistry registry) {
+        registry.add("razorpay.api.base-url", () -> "http://localhost:" + razorpay.getAddress().getPort() + "/v1");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        razorpay.stop(0);
+    }
+
+    @BeforeEach
+    void reset() {
+        refundOutboxRepository.deleteAll();
+        razorpayInfoRepository.deleteAll();
+        accepted.clear();
+        script.clear();
+        listScript.clear();
+        refundCalls.set(0);
+        listCalls.set(0);
+    }
+
+    @Test
+    void refundThatTimedOutIsFoundInsteadOfSentAgain() throws Exception {
+        RazorpayInfo info = payment();
+        RefundOutbox refund = refundService.enqueue(info, 1L, 150.0);
+        script.add("slow");
+
+        refundService.processPendingRefunds();
+
+        RefundOutbox afterTimeout = refundOutboxRepository.findById(refund.getId()).orElseThrow();
+        assertThat(afterTimeout.getStatus()).isEqualTo("PENDING");
+        assertThat(afterTimeout.isOutcomeUnknown()).isTrue();
+        assertThat(accepted).hasSize(1);
+
+        refundService.processPendingRefunds();
+
+        RefundOutbox completed = refundOutboxRepository.findById(refund.getId()).orElseThrow();
+        assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(completed.getRazorpayRefundId()).isEqualTo(accepted.get(0).getString("id"));
+        assertThat(refundCalls).hasValue(1);
+        assertThat(listCalls).hasValue(1);
+        assertThat(accepted).hasSize(1);
+        assertThat(razorpayInfoRepository.findByRazorpayPaymentId(PAYMENT_ID).getRefundedAmount()).isEqualTo(150.0);
+    }
+
+    @Test
+    void rejectedRefundIsSentAgainWithoutLookingItUp() {
+        RefundOutbox refund = refundService.enqueue(payment(), 1L, 80.0);
+        script.add("reject");
+
+        refundService.processPendingRefunds();
+
+        RefundOutbox afterRejection = refundOutboxRepository.findById(refund.getId()).orElseThrow();
+        assertThat(afterRejection.getStatus()).isEqualTo("PENDING");
+        assertThat(afterRejection.isOutcomeUnknown()).isFalse();
+        assertThat(afterRejection.getLastError()).isEqualTo("The payment is being processed");
+
+        refundService.processPendingRefunds();
+
+        assertThat(refundOutboxRepository.findById(refund.getId()).orElseThrow().getStatus()).isEqualTo("COMPLETED");
+        assertThat(refundCalls).hasValue(2);
+        assertThat(listCalls).hasValue(0);
+        assertThat(accepted).hasSize(1);
+    }
+
+    @Test
+    void refundStillUnknownAfterTheLastAttemptKeepsItsAmountReserved() {
+        RazorpayInfo info = payment();
+        RefundOutbox refund = refundService.enqueue(info, 1L, 150.0);
+        script.add("slow");
+        listScript.add("slow");
+
+        refundService.processPendingRefunds(); // refund accepted, answer lost
+        refundService.processPendingRefunds(); // lookup times out too, out of attempts
+
+        RefundOutbox unresolved = refundOutboxRepository.findById(refund.getId()).orElseThrow();
+        assertThat(unresolved.getStatus()).isEqualTo("UNKNOWN");
+        assertThat(unresolved.getAttempts()).isEqualTo(2);
+        assertThat(unresolved.isOutcomeUnknown()).isTrue();
+
+        // Razorpay paid it, so the amount must not be refundable again
+        assertThat(accepted).hasSize(1);
+        assertThat(refundService.remainingRefundable(info, 200.0)).isEqualTo(50.0);
+
+        // And it is never sent again
+        refundService.processPendingRefunds();
+        assertThat(refundCalls).hasValue(1);
+        assertThat(refundOutboxRepository.findById(refund.getId()).orElseThrow().getStatus()).isEqualTo("UNKNOWN");
+    }
+
+    @Test
+    void rejectedRefundFailsAfterTheLastAttempt() {
+        RazorpayInfo info = payment();
+        RefundOutbox refund = refundService.enqueue(info, 1L, 80.0);
+        script.add("reject");
+        script.add("reject");
+
+        refundService.processPendingRefunds();
+        refundService.processPendingRefunds();
+
+        assertThat(refundOutboxRepository.findById(refund.getId()).orElseThrow().getStatus()).isEqualTo("FAILED");
+        assertThat(refundService.remainingRefundable(info, 200.0)).isEqualTo(200.0);
+    }
+
+    @Test
+    void claimedRefundIsNotTakenByAnotherWorker() {
+        RefundOutbox refund = refundService.enqueue(payment(), 1L, 10.0);
+
+        assertThat(refundOutboxRepository.claim(refund.getId(), LocalDateTime.now())).isEqualTo(1);
+        assertThat(refundOutboxRepository.claim(refund.getId(), LocalDateTime.now())).isZero();
+
+        refundService.processPendingRefunds();
+
+        assertThat(refundCalls).hasValue(0);
+        assertThat(refundOutboxRepository.findById(refund.getId()).orElseThrow().getStatus()).isEqualTo("IN_FLIGHT");
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private RazorpayInfo payment() {
+        RazorpayInfo info = new RazorpayInfo();
+        info.setRazorpayPaymentId(PAYMENT_ID);
+        return razorpayInfoRepository.save(info);
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/v1/payments/" + PAYMENT_ID + "/refund", exchange -> handle(exchange, false));
+            server.createContext("/v1/payments/" + PAYMENT_ID + "/refunds", exchange -> handle(exchange, true));
+            server.setExecutor(Executors.newCachedThreadPool()); // a slow answer must not hold up the next request
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void handle(HttpExchange exchange, boolean list) throws IOException {
+        try {
+            if (list) {
+                listRefunds(exchange);
+            } else {
+                refund(exchange);
+            }
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void refund(HttpExchange exchange) throws IOException, JSONException {
+        refundCalls.incrementAndGet();
+        String behaviour = script.isEmpty() ? "ok" : script.remove(0);
+
+        JSONObject body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        if (behaviour.equals("reject")) {
+            respond(exchange, 400, new JSONObject().put("error",
+                    new JSONObject().put("code", "BAD_REQUEST_ERROR").put("description", "The payment is being processed")));
+            return;
+        }
+
+        JSONObject refund = new JSONObject()
+                .put("id", "rfnd_" + (accepted.size() + 1))
+                .put("payment_id", PAYMENT_ID)
+                .put("amount", body.getLong("amount"))
+                .put("receipt", body.getString("receipt"));
+        accepted.add(refund);
+
+        if (behaviour.equals("slow")) {
+            sleepPastTimeout();
+        }
+        respond(exchange, 200, refund);
+    }
+
+    private static void listRefunds(HttpExchange exchange) throws IOException, JSONException {
+        listCalls.incrementAndGet();
+        if (!listScript.isEmpty() && listScript.remove(0).equals("slow")) {
+            sleepPastTimeout();
+        }
+        respond(exchange, 200, new JSONObject()
+                .put("entity", "collection")
+                .put("count", accepted.size())
+                .put("items", new JSONArray(accepted)));
+    }
+
+    private static void sleepPastTimeout() {
+        try {
+            Thread.sleep(1500); // past the client's 500 ms timeout
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // the client gave up waiting
+        } finally {
+            exchange.close();
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package abubakar.bookapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.Review;
+import abubakar.bookapp.repository.BookRepository;
+
+/**
+ * Rating-sorted review pages, which seek on (rating, id) with unrated
+ * reviews stored as 0, and the startup migration of NULL ratings.
+ */
+@SpringBootTest
+class ReviewServiceTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    @BeforeEach
+    void seed() {
+        Book book = new Book();
+        book.setName("Reviewed");
+        book.setPrice(BigDecimal.TEN);
+        bookId = bookRepository.save(book).getId();
+    }
+
+    @Test
+    void ratingPagesRunHighestFirstWithUnratedLast() {
+        Review first = reviewService.addReview(bookId, "good", 5f);
+        Review unrated = reviewService.addReview(bookId, "no stars", null);
+        Review middle = reviewService.addReview(bookId, "fine", 3f);
+        Review second = reviewService.addReview(bookId, "great", 5f);
+        Review low = reviewService.addReview(bookId, "meh", 1f);
+
+        assertThat(unrated.getRating()).isZero();
+
+        List<Long> seen = new ArrayList<>();
+        Long after = null;
+        Slice<Review> page;
+        do {
+            page = reviewService.getReviews(bookId, after, 2, ReviewService.SORT_RATING);
+            page.forEach(review -> seen.add(review.getId()));
+            after = page.getContent().get(page.getNumberOfElements() - 1).getId();
+        } while (page.hasNext());
+
+        assertThat(seen).containsExactly(second.getId(), first.getId(), middle.getId(), low.getId(),
+                unrated.getId());
+
+        // Unrated reviews do not count towards the book's average
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        assertThat(book.getRatingCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void nullRatingsFromBeforeTheMigrationBecomeZero() {
+        jdbcTemplate.execute("ALTER TABLE reviews MODIFY rating FLOAT NULL DEFAULT 0");
+        jdbcTemplate.update("INSERT INTO reviews (book_id, comment, rating, created_at) "
+                + "VALUES (?, 'legacy', NULL, CURRENT_TIMESTAMP)", bookId);
+
+        reviewService.prepareReviews();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT rating FROM reviews WHERE book_id = ?", Float.class, bookId))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns "
+                + "WHERE table_name = 'reviews' AND column_name = 'rating'", String.class))
+                .isEqualTo("NO");
+    }
+
+}
@@ -0,0 +1,108 @@
+package abubakar.bookapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import abubakar.bookapp.models.Book;
+import abubakar.bookapp.models.OrderItem;
+import abubakar.bookapp.repository.BookRepository;
+
+/**
+ * The batched conditional decrement against a real database. A concurrent
+ * checkout is simulated by taking stock between loadBooks() and reserve(),
+ * after the in-memory check would still pass.
+ */
+@SpringBootTest
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Book first;
+    private Book second;
+
+    @BeforeEach
+    void seed() {
+        first = book("First", 5);
+        second = book("Second", 5);
+    }
+
+    @Test
+    void reservesEveryLineAndMergesDuplicates() {
+        List<OrderItem> items = List.of(item(first, 2), item(second, 1), item(first, 3));
+
+        stockReservationService.reserve(items, stockReservationService.loadBooks(items));
+
+        assertThat(quantity(first)).isZero();
+        assertThat(quantity(second)).isEqualTo(4);
+    }
+
+    @Test
+    void duplicateLinesAreCheckedAgainstStockTogether() {
+        List<OrderItem> items = List.of(item(first, 3), item(first, 3));
+
+        assertThatThrownBy(() -> stockReservationService.reserve(items, stockReservationService.loadBooks(items)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        assertThat(quantity(first)).isEqualTo(5);
+    }
+
+    @Test
+    void stockTakenByAnotherCheckoutFailsWithConflictAndRollsBackTheOrder() {
+        List<OrderItem> items = List.of(item(first, 2), item(second, 4));
+        Map<Long, Book> books = stockReservationService.loadBooks(items);
+
+        // Another checkout buys 2 of the second book after ours read 5
+        jdbcTemplate.update("UPDATE books SET quantity = quantity - 2 WHERE id = ?", second.getId());
+
+        assertThatThrownBy(() -> stockReservationService.reserve(items, books))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+
+        // The first book's decrement ran in the same batch and is rolled back with it
+        assertThat(quantity(first)).isEqualTo(5);
+        assertThat(quantity(second)).isEqualTo(3);
+    }
+
+    // ---------------- Helper Methods ----------------
+
+    private Book book(String name, int quantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(BigDecimal.TEN);
+        book.setQuantity(quantity);
+        return bookRepository.save(book);
+    }
+
+    private static OrderItem item(Book book, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setBookId(book.getId());
+        item.setBookName(book.getName());
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private int quantity(Book book) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM books WHERE id = ?", Integer.class, book.getId());
+    }
+
+}
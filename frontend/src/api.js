@@ -180,6 +180,11 @@ export function getBook(id) {
   return API.get(`/books/${id}`);
 }
 
+// Reviews of a book, newest first, one cursor slice at a time (Admin)
+export function getBookReviews(id, after, limit = 10) {
+  return API.get(`/books/${id}/reviews`, { params: { after, limit } });
+}
+
 // Create book
 export function createBook(bookDTO, file) {
   const data = buildFormData(bookDTO, file);
@@ -209,6 +214,11 @@ export function getUserBooks(page = 0, size = 3) {
   return API.get(`/user/books?page=${page}&size=${size}`);
 }
 
+// Reviews of a book, newest first, one cursor slice at a time
+export function getUserBookReviews(id, after, limit = 10) {
+  return API.get(`/user/books/${id}/reviews`, { params: { after, limit } });
+}
+
 //Search
 export function searchUserBooksByName(name, page, size) {
   return API.get(`/user/books/search`, { params: { name, page, size } });
@@ -260,9 +270,9 @@ export function placeOrder(orderData) {
   return API.post(`/order/place`, orderData);
 }
 
-// Get orders by user ID
-export function getOrdersByUserId(userId) {
-  return API.get(`/order/user/${userId}`);
+// Get orders by user ID, newest first, one cursor slice at a time
+export function getOrdersByUserId(userId, after, limit = 20) {
+  return API.get(`/order/user/${userId}`, { params: { after, limit } });
 }
 
 // Edit an order by order ID
@@ -322,9 +332,9 @@ export function addReviewAndRating(orderId, bookId, dto) {
 
 /* -------------------- ADMIN ORDERS -------------------- */
 
-// Get all orders (Admin only)
-export function getAllOrders() {
-  return API.get(`/admin/orders`);
+// Get orders newest first, one cursor slice at a time (Admin only)
+export function getAllOrders(after, limit = 20) {
+  return API.get(`/admin/orders`, { params: { after, limit } });
 }
 
 // Update order status (Admin only)
@@ -414,9 +424,9 @@ export function printReturnReplacementRequest(requestId) {
 
 /* -------------------- ADMIN RETURN / REPLACEMENT -------------------- */
 
-// Get all return/replacement requests (Admin)
-export function getAllReturnRequests() {
-  return API.get(`/admin/returns/all`);
+// Get return/replacement requests newest first, one cursor slice at a time (Admin)
+export function getAllReturnRequests(after, limit = 20) {
+  return API.get(`/admin/returns/all`, { params: { after, limit } });
 }
 
 // Get return/replacement requests filtered by status (Admin)
@@ -7,6 +7,7 @@ import AlertModal from '../components/AlertModal';
 
 function AdminOrderPage() {
     const [orders, setOrders] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [razorpayInfoMap, setRazorpayInfoMap] = useState({});
     const [modal, setModal] = useState({ show: false, title: "", message: "", type: "info" });
 
@@ -25,19 +26,20 @@ function AdminOrderPage() {
     }, [navigate, role]);
 
 
-    const loadOrders = () => {
+    // Without a cursor the list starts over; with one the next slice is appended
+    const loadOrders = (after) => {
 
-        getAllOrders()
+        getAllOrders(after)
             .then(res => {
 
-                const sorted = [...res.data]
-                    .filter(o => o && o.createdAt)
-                    .sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt));
+                const loaded = (res.data.content || []).filter(o => o && o.createdAt);
 
-                setOrders(sorted);
+                setOrders(prev => [...(after ? prev : []), ...loaded]
+                    .sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt)));
+                setNextCursor(res.data.hasNext ? res.data.nextCursor : null);
 
                 // Fetch Razorpay info
-                sorted.forEach(order => {
+                loaded.forEach(order => {
 
                     if (order.orderMode === "UPI") {
 
@@ -277,6 +279,14 @@ function AdminOrderPage() {
                             </div>
                         );
                     })}
+
+                    {nextCursor && (
+                        <div className="text-center my-3">
+                            <button className="btn btn-outline-primary" onClick={() => loadOrders(nextCursor)}>
+                                Load more
+                            </button>
+                        </div>
+                    )}
                 </div>
             )}
 
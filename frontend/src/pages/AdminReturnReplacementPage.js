@@ -9,6 +9,7 @@ import AlertModal from "../components/AlertModal";
 
 export default function AdminReturnReplacementPage() {
     const [requests, setRequests] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [statusFilter, setStatusFilter] = useState("ALL");
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState(null);
@@ -54,13 +55,15 @@ export default function AdminReturnReplacementPage() {
         setLoading(true);
         setError(null);
         try {
-            let res;
             if (status === "ALL") {
-                res = await getAllReturnRequests();
+                const res = await getAllReturnRequests();
+                setRequests(res.data.content || []);
+                setNextCursor(res.data.hasNext ? res.data.nextCursor : null);
             } else {
-                res = await getReturnRequestsByStatus(status);
+                const res = await getReturnRequestsByStatus(status);
+                setRequests((res.data || []).slice().reverse());
+                setNextCursor(null);
             }
-            setRequests((res.data || []).slice().reverse());
         } catch (e) {
             console.error(e);
             setError("Failed to load requests.");
@@ -70,6 +73,18 @@ export default function AdminReturnReplacementPage() {
         }
     }
 
+    // Append the next slice of the "ALL" listing
+    async function fetchMoreRequests() {
+        try {
+            const res = await getAllReturnRequests(nextCursor);
+            setRequests((prev) => [...prev, ...(res.data.content || [])]);
+            setNextCursor(res.data.hasNext ? res.data.nextCursor : null);
+        } catch (e) {
+            console.error(e);
+            handleError(e, 'Failed to load request.');
+        }
+    }
+
     function openDetails(rr) {
         setDetailModal({ show: true, rr });
     }
@@ -244,6 +259,14 @@ export default function AdminReturnReplacementPage() {
                 ))
             )}
 
+            {!loading && !error && nextCursor && (
+                <div className="text-center my-3">
+                    <button className="btn btn-outline-primary" onClick={fetchMoreRequests}>
+                        Load more
+                    </button>
+                </div>
+            )}
+
             {/* Details Modal */}
             {detailModal.show && (
                 <div className="modal show d-flex justify-content-center align-items-center" tabIndex={-1} role="dialog">
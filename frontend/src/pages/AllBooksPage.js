@@ -1,11 +1,12 @@
 import { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { getUserBooks, addToWishlist, addToCart, searchUserBooksByName } from '../api';
+import { getUserBooks, addToWishlist, addToCart, searchUserBooksByName, getUserBookReviews } from '../api';
 import '../../src/style/ReviewsStyle.css';
 import ReactStars from 'react-stars';
 import AlertModal from '../components/AlertModal';
 import '../../src/style/DescriptionScroll.css';
 import '../../src/style/All.css';
+import { thumbnail, thumbnailSrcSet } from '../utils/images';
 
 export default function BooksPage() {
   const [books, setBooks] = useState([]);
@@ -13,6 +14,8 @@ export default function BooksPage() {
   const [page, setPage] = useState(0);
   const [totalPages, setTotalPages] = useState(0);
   const [selectedBook, setSelectedBook] = useState(null);
+  const [selectedReviews, setSelectedReviews] = useState([]);
+  const [reviewsCursor, setReviewsCursor] = useState(null);
   const [searchTerm, setSearchTerm] = useState("");
   const nav = useNavigate();
   const [modal, setModal] = useState({
@@ -23,6 +26,24 @@ export default function BooksPage() {
     onConfirm: null
   });
 
+  // Reviews are not part of the book listing; load them a slice at a time when a book is opened
+  const loadReviews = (bookId, after) => {
+    getUserBookReviews(bookId, after)
+      .then(res => {
+        const loaded = res.data.content || [];
+        setSelectedReviews(prev => [...(after ? prev : []), ...loaded]);
+        setReviewsCursor(res.data.hasNext ? res.data.nextCursor : null);
+      })
+      .catch(err => console.error("Failed to load reviews:", err));
+  };
+
+  useEffect(() => {
+    setSelectedReviews([]);
+    setReviewsCursor(null);
+    if (!selectedBook) return;
+    loadReviews(selectedBook.id);
+  }, [selectedBook]);
+
   useEffect(() => {
     const delayDebounce = setTimeout(() => {
       if (searchTerm.trim() === "") {
@@ -223,7 +244,9 @@ export default function BooksPage() {
                 {/* Image Section */}
                 <div className="position-relative">
                   <img
-                    src={b.imageUrl}
+                    src={thumbnail(b.imageUrl, 320)}
+                    srcSet={thumbnailSrcSet(b.imageUrl, 320)}
+                    sizes="(min-width: 768px) 25vw, 50vw"
                     alt={b.name}
                     className="card-img-top"
                     style={{
@@ -254,7 +277,7 @@ export default function BooksPage() {
                   {b.author && (
                     <div className="d-flex align-items-center mt-2">
                       <img
-                        src={b.author.imageUrl || "/placeholder.jpg"}
+                        src={thumbnail(b.author.imageUrl, 64) || "/placeholder.jpg"}
                         alt={b.author.name}
                         className="rounded-circle me-2"
                         style={{
@@ -359,16 +382,13 @@ export default function BooksPage() {
                 </div>
 
                 {/* Bottom Section: Reviews */}
-                {selectedBook.reviews && selectedBook.reviews.length > 0 && (
+                {selectedReviews.length > 0 && (
                   <div>
                     <strong>Reviews:</strong>
                     <ul className="review-list">
-                      {selectedBook.reviews
-                        .slice()
-                        .reverse()
-                        .sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt)) // latest first
-                        .map((r, i) => (
-                          <li key={i} className="review-item" style={{ marginBottom: '15px' }}>
+                      {selectedReviews // already newest first
+                        .map(r => (
+                          <li key={r.id} className="review-item" style={{ marginBottom: '15px' }}>
                             {/* Star rating */}
                             <ReactStars
                               count={5}
@@ -383,6 +403,11 @@ export default function BooksPage() {
                           </li>
                         ))}
                     </ul>
+                    {reviewsCursor && (
+                      <button className="btn btn-sm btn-outline-secondary" onClick={() => loadReviews(selectedBook.id, reviewsCursor)}>
+                        More reviews
+                      </button>
+                    )}
                   </div>
                 )}
 
@@ -10,6 +10,7 @@ import { useDropzone } from "react-dropzone";
 import AlertModal from '../components/AlertModal';
 import '../../src/style/DescriptionScroll.css';
 import '../../src/style/All.css';
+import { thumbnail, thumbnailSrcSet } from "../utils/images";
 
 export default function AuthorsPage() {
   const [authors, setAuthors] = useState([]);
@@ -310,7 +311,9 @@ export default function AuthorsPage() {
               <div key={author.id} className="col-sm-12 col-md-4 mb-2">
                 <div className="card h-100 shadow-sm">
                   <img
-                    src={author.imageUrl}
+                    src={thumbnail(author.imageUrl, 320)}
+                    srcSet={thumbnailSrcSet(author.imageUrl, 320)}
+                    sizes="(min-width: 768px) 33vw, 100vw"
                     alt={author.name}
                     className="card-img-top"
                     style={{ height: "380px", objectFit: "fill", backgroundColor: "#f0f0f0" }}
@@ -5,7 +5,8 @@ import {
   updateBook,
   deleteBook,
   getAuthorNames,
-  searchBooksByName
+  searchBooksByName,
+  getBookReviews
 } from "../api";
 import { useDropzone } from "react-dropzone";
 import '../../src/style/ReviewsStyle.css';
@@ -13,6 +14,7 @@ import ReactStars from 'react-stars';
 import AlertModal from '../components/AlertModal';
 import '../../src/style/DescriptionScroll.css';
 import '../../src/style/All.css';
+import { thumbnail, thumbnailSrcSet } from "../utils/images";
 
 export default function AllBooksPage() {
   const [books, setBooks] = useState([]);
@@ -23,6 +25,8 @@ export default function AllBooksPage() {
   const [editing, setEditing] = useState(null);
   const [authors, setAuthors] = useState([]);
   const [selectedBook, setSelectedBook] = useState(null);
+  const [selectedReviews, setSelectedReviews] = useState([]);
+  const [reviewsCursor, setReviewsCursor] = useState(null);
   const [searchTerm, setSearchTerm] = useState("");
   const [modal, setModal] = useState({
     show: false,
@@ -44,6 +48,24 @@ export default function AllBooksPage() {
 
   const [errors, setErrors] = useState({});
 
+  // Reviews are not part of the book listing; load them a slice at a time when a book is opened
+  const loadReviews = (bookId, after) => {
+    getBookReviews(bookId, after)
+      .then(res => {
+        const loaded = res.data.content || [];
+        setSelectedReviews(prev => [...(after ? prev : []), ...loaded]);
+        setReviewsCursor(res.data.hasNext ? res.data.nextCursor : null);
+      })
+      .catch(err => console.error("Failed to load reviews:", err));
+  };
+
+  useEffect(() => {
+    setSelectedReviews([]);
+    setReviewsCursor(null);
+    if (!selectedBook) return;
+    loadReviews(selectedBook.id);
+  }, [selectedBook]);
+
   useEffect(() => {
     const delayDebounce = setTimeout(() => {
       if (searchTerm.trim() === "") {
@@ -337,7 +359,9 @@ export default function AllBooksPage() {
                   {/* Image Section */}
                   <div className="position-relative">
                     <img
-                      src={book.imageUrl}
+                      src={thumbnail(book.imageUrl, 320)}
+                      srcSet={thumbnailSrcSet(book.imageUrl, 320)}
+                      sizes="(min-width: 768px) 25vw, 50vw"
                       alt={book.name}
                       className="card-img-top"
                       style={{
@@ -368,7 +392,7 @@ export default function AllBooksPage() {
                     {book.author && (
                       <div className="d-flex align-items-center mt-2">
                         <img
-                          src={book.author.imageUrl || "/placeholder.jpg"}
+                          src={thumbnail(book.author.imageUrl, 64) || "/placeholder.jpg"}
                           alt={book.author.name}
                           className="rounded-circle me-2"
                           style={{
@@ -469,16 +493,13 @@ export default function AllBooksPage() {
                     </div>
 
                     {/* Bottom Section: Reviews */}
-                    {selectedBook.reviews && selectedBook.reviews.length > 0 && (
+                    {selectedReviews.length > 0 && (
                       <div>
                         <strong>Reviews:</strong>
                         <ul className="review-list">
-                          {selectedBook.reviews
-                            .slice()
-                            .reverse()
-                            .sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt)) // latest first
-                            .map((r, i) => (
-                              <li key={i} className="review-item" style={{ marginBottom: '15px' }}>
+                          {selectedReviews // already newest first
+                            .map(r => (
+                              <li key={r.id} className="review-item" style={{ marginBottom: '15px' }}>
                                 {/* Star rating */}
                                 <ReactStars
                                   count={5}
@@ -493,6 +514,11 @@ export default function AllBooksPage() {
                               </li>
                             ))}
                         </ul>
+                        {reviewsCursor && (
+                          <button className="btn btn-sm btn-outline-secondary" onClick={() => loadReviews(selectedBook.id, reviewsCursor)}>
+                            More reviews
+                          </button>
+                        )}
                       </div>
                     )}
 
@@ -9,6 +9,7 @@ import '../../src/style/All.css';
 
 function OrderPage() {
   const [orders, setOrders] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [editingOrder, setEditingOrder] = useState(null);
   const [reviewModal, setReviewModal] = useState({ visible: false, orderId: null, bookId: null });
   const [reviewForm, setReviewForm] = useState({ rating: 5, review: '' });
@@ -54,21 +55,18 @@ function OrderPage() {
 
   const userId = sessionStorage.getItem('userId');
 
-  useEffect(() => {
-    if (!userId) {
-      navigate('/login');
-      return;
-    }
-
-    getOrdersByUserId(userId)
+  // Without a cursor the list starts over; with one the next slice is appended
+  const loadOrders = (after) => {
+    return getOrdersByUserId(userId, after)
       .then(res => {
-        const sorted = res.data.sort(
+        const loaded = res.data.content || [];
+        setOrders(prev => [...(after ? prev : []), ...loaded].sort(
           (a, b) => new Date(b.createdAt) - new Date(a.createdAt)
-        );
-        setOrders(sorted);
+        ));
+        setNextCursor(res.data.hasNext ? res.data.nextCursor : null);
 
         // Fetch Razorpay info for UPI orders only
-        sorted.forEach(order => {
+        loaded.forEach(order => {
           if (order.orderMode === "UPI") {
             fetchingRazorpayInfo(order.id)
               .then(infoRes => {
@@ -84,6 +82,15 @@ function OrderPage() {
         console.error(error);
         handleError(error, "No books in order.");
       });
+  };
+
+  useEffect(() => {
+    if (!userId) {
+      navigate('/login');
+      return;
+    }
+
+    loadOrders();
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [userId]);
 
@@ -197,11 +204,7 @@ function OrderPage() {
           });
 
           // refresh orders
-          const refreshed = await getOrdersByUserId(userId);
-          const sorted = refreshed.data.sort(
-            (a, b) => new Date(b.createdAt) - new Date(a.createdAt)
-          );
-          setOrders(sorted);
+          await loadOrders();
         } catch (err) {
           console.error("Cancel product error:", err);
           handleError(err, "Failed to delete order product.");
@@ -925,6 +928,14 @@ function OrderPage() {
               </div>
             );
           })}
+
+          {nextCursor && (
+            <div className="text-center my-3">
+              <button className="btn btn-outline-primary" onClick={() => loadOrders(nextCursor)}>
+                Load more
+              </button>
+            </div>
+          )}
         </div>
       )}
 
@@ -0,0 +1,18 @@
+// Width buckets the backend renders for /uploads/ images (see ImageVariantService)
+const WIDTHS = [160, 320, 640];
+
+const isUpload = (url) => typeof url === "string" && url.includes("/uploads/");
+
+// Downscaled copy of an uploaded image, at least `width` pixels wide
+export function thumbnail(url, width) {
+  if (!isUpload(url)) return url;
+  return `${url}${url.includes("?") ? "&" : "?"}w=${width}`;
+}
+
+// srcSet over the width buckets from `minWidth` up, so the browser picks by density
+export function thumbnailSrcSet(url, minWidth = WIDTHS[0]) {
+  if (!isUpload(url)) return undefined;
+  return WIDTHS.filter((w) => w >= minWidth)
+    .map((w) => `${thumbnail(url, w)} ${w}w`)
+    .join(", ");
+}